@@ -1,23 +1,35 @@
 package com.smell.application;
 
 import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
 import com.vaadin.flow.theme.Theme;
+import com.smell.application.batch.BatchModeEnvironmentPostProcessor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.ConfigurableApplicationContext;
 
 import java.io.IOException;
 
 /**
+ * Starts the web application, or the headless batch mode if {@code batch.input} is set,
+ * see {@link com.smell.application.batch.BatchMembershipRunner} and {@link BatchModeEnvironmentPostProcessor}.
+ *
  * @author FlynnDynamics
  * @version ${version}
  * @since 24/04/24
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @Theme(value = "mytodo")
+@Push
 public class Application implements AppShellConfigurator {
 
     public static void main(String[] args) {
-        SpringApplication.run(Application.class, args);
+        ConfigurableApplicationContext context = SpringApplication.run(Application.class, args);
+        if (BatchModeEnvironmentPostProcessor.isBatchMode(context.getEnvironment())) {
+            System.exit(SpringApplication.exit(context));
+        }
         openBrowser();
     }
 
@@ -0,0 +1,160 @@
+package com.smell.application.api;
+
+import com.google.gson.stream.JsonWriter;
+import com.smell.application.structure.CharacterDataService;
+import com.smell.application.structure.CharacterSnapshot;
+import com.smell.application.structure.EsiResponseException;
+import com.smell.application.structure.MembershipJson;
+import com.smell.application.structure.SearchDeadlineException;
+import com.smell.application.structure.SearchListener;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Serves the membership timeline of a character as JSON for machine clients such as bots and intel tools, without
+ * the cost of a Vaadin UI session per lookup.
+ * <p>
+ * Lookups go through the same {@link CharacterDataService} as the UI, so they share its result cache, its coalescing
+ * of concurrent searches and the ESI concurrency limit. The request is answered asynchronously once the search
+ * completes, so waiting clients do not hold a servlet thread, and the search is cancelled if nobody waits for it
+ * anymore.
+ * <p>
+ * Every response carries a weak ETag computed from the membership data, and a Cache-Control max-age covering the time
+ * the snapshot stays in the result cache. Spring answers requests whose If-None-Match matches the ETag with a
+ * 304 Not Modified and no body. Incomplete snapshots, which the result cache does not keep either, are sent with
+ * no-cache.
+ * <p>
+ * Usage:
+ * <pre>
+ * GET /api/characters/454518485/membership
+ * </pre>
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+@RestController
+@RequestMapping("/api/characters")
+public class MembershipController {
+    private static final Logger LOGGER = Logger.getLogger(MembershipController.class.getName());
+
+    private final CharacterDataService characterDataService;
+
+    public MembershipController(CharacterDataService characterDataService) {
+        this.characterDataService = characterDataService;
+    }
+
+    /**
+     * Returns the membership timeline of a character, see {@link MembershipJson} for the format.
+     * If the request times out or the client goes away before the search completes, the search is cancelled.
+     *
+     * @param characterId The character to look up.
+     * @return The pending response: the timeline, or an error object with a status of 404 if ESI does not know the
+     *         character, 502 if ESI failed, 504 if the search or the request ran out of time, or 503 if the search was
+     *         cancelled because the application is shutting down.
+     */
+    @GetMapping(value = "/{characterId}/membership", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<byte[]>> getMembership(@PathVariable("characterId") long characterId) {
+        DeferredResult<ResponseEntity<byte[]>> response = new DeferredResult<>();
+        Future<CharacterSnapshot> search = characterDataService.searchCharacter(characterId, false, new SearchListener() {
+            @Override
+            public void onComplete(CharacterSnapshot snapshot) {
+                response.setResult(toResponse(snapshot));
+            }
+
+            @Override
+            public void onFailure(Exception failure) {
+                response.setResult(toErrorResponse(characterId, failure));
+            }
+        });
+        response.onTimeout(() -> {
+            search.cancel(true);
+            response.setResult(toErrorResponse(characterId, HttpStatus.GATEWAY_TIMEOUT, "Request timed out"));
+        });
+        response.onError(failure -> search.cancel(true));
+        return response;
+    }
+
+    private ResponseEntity<byte[]> toResponse(CharacterSnapshot snapshot) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag(snapshot))
+                .cacheControl(cacheControl(snapshot))
+                .body(MembershipJson.toJson(snapshot).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lets clients and proxies reuse the response for as long as the result cache would serve the same snapshot.
+     */
+    private CacheControl cacheControl(CharacterSnapshot snapshot) {
+        if (!snapshot.isComplete()) {
+            return CacheControl.noCache();
+        }
+        Duration remaining = characterDataService.getResultCache().getTimeToLive().minus(snapshot.getAge());
+        return CacheControl.maxAge(remaining.isNegative() ? Duration.ZERO : remaining).cachePublic();
+    }
+
+    /**
+     * Derives a weak ETag from the membership data only, leaving out when it was assembled, so a client holding the
+     * timeline of a character whose history has not changed revalidates to a 304 even after the snapshot was
+     * assembled again.
+     */
+    private static String etag(CharacterSnapshot snapshot) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(MembershipJson.toTimelineJson(snapshot.getCharacter()).getBytes(StandardCharsets.UTF_8));
+            return "W/\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+        }
+    }
+
+    private static ResponseEntity<byte[]> toErrorResponse(long characterId, Exception failure) {
+        HttpStatus status;
+        if (failure instanceof EsiResponseException esiFailure && esiFailure.getStatusCode() == 404) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (failure instanceof SearchDeadlineException) {
+            status = HttpStatus.GATEWAY_TIMEOUT;
+        } else if (failure instanceof InterruptedException) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+        } else {
+            status = HttpStatus.BAD_GATEWAY;
+        }
+        return toErrorResponse(characterId, status, failure.getMessage());
+    }
+
+    private static ResponseEntity<byte[]> toErrorResponse(long characterId, HttpStatus status, String error) {
+        LOGGER.warning("Membership request for character " + characterId + " failed with " + status + ": " + error);
+
+        StringWriter body = new StringWriter();
+        try (JsonWriter json = new JsonWriter(body)) {
+            json.beginObject();
+            json.name("characterId").value(characterId);
+            json.name("error").value(error);
+            json.endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing to a string cannot fail", e);
+        }
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .body(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
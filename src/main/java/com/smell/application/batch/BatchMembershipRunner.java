@@ -0,0 +1,147 @@
+package com.smell.application.batch;
+
+import com.smell.application.search.SearchHelper;
+import com.smell.application.structure.CharacterDataService;
+import com.smell.application.structure.CharacterSnapshot;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+/**
+ * Looks up the memberships of every character listed in the {@code batch.input} file without a UI, for screening
+ * many applicants at once.
+ * <p>
+ * Each line of the input holds a character ID or a zKillboard character URL, parsed like the search field does it,
+ * see {@link SearchHelper#parseCharacterId}; blank lines and lines starting with {@code #} are skipped. The input is
+ * read lazily and at most {@code batch.parallelism} characters are looked up at the same time, through the same
+ * {@link CharacterDataService} and caches as the web application. Every result is written as soon as it completes,
+ * so results arrive in completion order, tagged with their input line, and memory use does not depend on the size of
+ * the input.
+ * <p>
+ * The application exits once the batch is done, with exit code 1 if any input could not be looked up.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+@Component
+@ConditionalOnProperty(prefix = "batch", name = "input")
+public class BatchMembershipRunner implements ApplicationRunner, ExitCodeGenerator {
+    private static final Logger LOGGER = Logger.getLogger(BatchMembershipRunner.class.getName());
+
+    private final CharacterDataService characterDataService;
+    private final BatchProperties properties;
+    private final AtomicInteger failed = new AtomicInteger();
+
+    public BatchMembershipRunner(CharacterDataService characterDataService, BatchProperties properties) {
+        this.characterDataService = characterDataService;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException, InterruptedException {
+        int parallelism = Math.max(1, properties.getParallelism());
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicReference<IOException> writeFailure = new AtomicReference<>();
+        int submitted = 0;
+        long started = System.nanoTime();
+
+        LOGGER.info("Batch lookup of " + properties.getInput() + " started with parallelism " + parallelism);
+        try (BufferedReader in = Files.newBufferedReader(properties.getInput(), StandardCharsets.UTF_8);
+             MembershipRecordWriter out = MembershipRecordWriter.create(properties.getFormat(), openOutput());
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            String input;
+            long line = 0;
+            while ((input = in.readLine()) != null && writeFailure.get() == null) {
+                line++;
+                String trimmed = input.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+
+                Long characterId = SearchHelper.parseCharacterId(trimmed);
+                if (characterId == null) {
+                    failed.incrementAndGet();
+                    out.writeError(line, trimmed, "No character ID found");
+                    continue;
+                }
+
+                permits.acquire();
+                submitted++;
+                long inputLine = line;
+                executor.submit(() -> {
+                    try {
+                        lookUp(inputLine, trimmed, characterId, out);
+                    } catch (IOException e) {
+                        writeFailure.compareAndSet(null, e);
+                    } catch (RuntimeException e) {
+                        writeFailure.compareAndSet(null, new IOException("Failed to write the result of line " + inputLine, e));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+            permits.acquire(parallelism); // Wait for the lookups still running
+        }
+
+        if (writeFailure.get() != null) {
+            throw new IOException("Failed to write batch results", writeFailure.get());
+        }
+        LOGGER.info("Batch lookup finished: " + submitted + " characters looked up, " + failed.get() + " inputs failed, in "
+                + (System.nanoTime() - started) / 1_000_000_000 + "s");
+    }
+
+    private void lookUp(long line, String input, long characterId, MembershipRecordWriter out) throws IOException {
+        CharacterSnapshot snapshot;
+        try {
+            snapshot = characterDataService.getCharacterSnapshot(characterId, properties.isReassemble());
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            out.writeError(line, input, e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            LOGGER.severe("Unexpected failure looking up line " + line + ": " + e);
+            failed.incrementAndGet();
+            out.writeError(line, input, e.toString());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+            out.writeError(line, input, "Interrupted");
+            return;
+        }
+        out.write(line, input, snapshot);
+    }
+
+    private Writer openOutput() throws IOException {
+        if (properties.getOutput() == null) {
+            return new OutputStreamWriter(System.out, StandardCharsets.UTF_8) {
+                @Override
+                public void close() throws IOException {
+                    flush(); // Leave standard output open
+                }
+            };
+        }
+        return Files.newBufferedWriter(properties.getOutput(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int getExitCode() {
+        return failed.get() > 0 ? 1 : 0;
+    }
+}
@@ -0,0 +1,40 @@
+package com.smell.application.batch;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Switches the application to the headless batch mode, without a web server, whenever {@code batch.input} is set,
+ * see {@link BatchMembershipRunner}. The decision is made on the fully resolved environment, so the input may come
+ * from a command line argument, a system property, the {@code BATCH_INPUT} environment variable, a properties file
+ * or a profile alike.
+ * <p>
+ * Registered in {@code META-INF/spring.factories}; it runs after the configuration files have been loaded.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public class BatchModeEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (isBatchMode(environment)) {
+            environment.getPropertySources().addFirst(
+                    new MapPropertySource("batchMode", Map.of("spring.main.web-application-type", "none")));
+        }
+    }
+
+    /**
+     * @param environment The resolved environment of the application.
+     * @return whether the application runs in batch mode
+     */
+    public static boolean isBatchMode(Environment environment) {
+        return environment.containsProperty("batch.input");
+    }
+}
@@ -0,0 +1,97 @@
+package com.smell.application.batch;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration of the headless batch mode, bound from the {@code batch.*} application properties.
+ * The batch mode runs instead of the web application whenever {@code batch.input} is set, e.g.
+ * {@code java -jar slp2.jar --batch.input=applicants.txt --batch.output=applicants.ndjson}.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+@ConfigurationProperties(prefix = "batch")
+public class BatchProperties {
+
+    /**
+     * Output formats of the batch mode.
+     */
+    public enum Format {
+        /**
+         * One JSON object per character and line.
+         */
+        NDJSON,
+        /**
+         * One row per alliance membership, or per corporation membership without alliances.
+         */
+        CSV
+    }
+
+    /**
+     * File with one character ID or zKillboard character URL per line.
+     */
+    private Path input;
+
+    /**
+     * File the results are written to; standard output if unset.
+     */
+    private Path output;
+
+    /**
+     * Format of the results.
+     */
+    private Format format = Format.NDJSON;
+
+    /**
+     * Number of characters looked up at the same time.
+     */
+    private int parallelism = 8;
+
+    /**
+     * Whether to bypass the result cache and assemble every character again.
+     */
+    private boolean reassemble = false;
+
+    public Path getInput() {
+        return input;
+    }
+
+    public void setInput(Path input) {
+        this.input = input;
+    }
+
+    public Path getOutput() {
+        return output;
+    }
+
+    public void setOutput(Path output) {
+        this.output = output;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public void setFormat(Format format) {
+        this.format = format;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public boolean isReassemble() {
+        return reassemble;
+    }
+
+    public void setReassemble(boolean reassemble) {
+        this.reassemble = reassemble;
+    }
+}
@@ -0,0 +1,86 @@
+package com.smell.application.batch;
+
+import com.smell.application.structure.CharacterSnapshot;
+import com.smell.application.user.Alliance;
+import com.smell.application.user.Character;
+import com.smell.application.user.Corporation;
+import com.smell.application.user.EveDates;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes one CSV row per alliance membership, or per corporation membership without alliances, following RFC 4180.
+ * Dates are ISO-8601, and an ongoing membership has an empty end. Inputs that could not be looked up get a single
+ * row with only the input and the error filled in.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+class CsvMembershipWriter implements MembershipRecordWriter {
+
+    private static final String HEADER = "line,input,character_id,character_name,complete,"
+            + "corporation_id,corporation_name,corporation_start,corporation_end,corporation_special,"
+            + "alliance_id,alliance_name,alliance_start,alliance_end,alliance_special,error";
+
+    private final Writer out;
+
+    CsvMembershipWriter(Writer out) throws IOException {
+        this.out = out;
+        out.write(HEADER);
+        out.write("\r\n");
+        out.flush();
+    }
+
+    @Override
+    public synchronized void write(long line, String input, CharacterSnapshot snapshot) throws IOException {
+        Character character = snapshot.getCharacter();
+        String prefix = line + "," + quote(input) + "," + character.id() + "," + quote(character.name()) + "," + snapshot.isComplete() + ",";
+        for (Corporation corporation : character.corporations()) {
+            String corporationColumns = corporation.id() + "," + quote(corporation.name()) + ","
+                    + date(corporation.playerStartDate()) + "," + date(corporation.playerEndDate()) + "," + corporation.special() + ",";
+            if (corporation.alliances().isEmpty()) {
+                row(prefix + corporationColumns + ",,,,,");
+            }
+            for (Alliance alliance : corporation.alliances()) {
+                row(prefix + corporationColumns + alliance.id() + "," + quote(alliance.name()) + ","
+                        + date(alliance.startDate()) + "," + date(alliance.endDate()) + "," + alliance.special() + ",");
+            }
+        }
+        if (character.corporations().isEmpty()) {
+            row(prefix + ",,,,,,,,,,");
+        }
+        out.flush();
+    }
+
+    @Override
+    public synchronized void writeError(long line, String input, String error) throws IOException {
+        row(line + "," + quote(input) + ",,,,,,,,,,,,,," + quote(error));
+        out.flush();
+    }
+
+    private void row(String row) throws IOException {
+        out.write(row);
+        out.write("\r\n");
+    }
+
+    private static String date(long epochSecond) {
+        return epochSecond == EveDates.OPEN_END ? "" : EveDates.format(epochSecond);
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
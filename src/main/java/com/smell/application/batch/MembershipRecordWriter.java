@@ -0,0 +1,49 @@
+package com.smell.application.batch;
+
+import com.smell.application.structure.CharacterSnapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the results of the batch mode, one character at a time, flushing after each so they can be consumed while
+ * the batch is still running. Implementations are thread-safe.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+interface MembershipRecordWriter extends Closeable {
+
+    /**
+     * Writes the memberships of a character.
+     *
+     * @param line     The line of the input the character came from.
+     * @param input    The input as given.
+     * @param snapshot The assembled character.
+     */
+    void write(long line, String input, CharacterSnapshot snapshot) throws IOException;
+
+    /**
+     * Writes that an input could not be looked up.
+     *
+     * @param line  The line of the input.
+     * @param input The input as given.
+     * @param error Why the lookup failed.
+     */
+    void writeError(long line, String input, String error) throws IOException;
+
+    /**
+     * Creates a writer for the given format.
+     *
+     * @param format The output format.
+     * @param out    The destination; closed together with the writer.
+     */
+    static MembershipRecordWriter create(BatchProperties.Format format, Writer out) throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonMembershipWriter(out);
+            case CSV -> new CsvMembershipWriter(out);
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package com.smell.application.batch;
+
+import com.google.gson.stream.JsonWriter;
+import com.smell.application.structure.CharacterSnapshot;
+import com.smell.application.structure.MembershipJson;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes one JSON object per character and line, in the format of {@link MembershipJson} plus the input line.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+class NdjsonMembershipWriter implements MembershipRecordWriter {
+
+    private final Writer out;
+
+    NdjsonMembershipWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public synchronized void write(long line, String input, CharacterSnapshot snapshot) throws IOException {
+        JsonWriter json = begin(line, input);
+        MembershipJson.writeFields(json, snapshot);
+        end(json);
+    }
+
+    @Override
+    public synchronized void writeError(long line, String input, String error) throws IOException {
+        JsonWriter json = begin(line, input);
+        json.name("error").value(error);
+        end(json);
+    }
+
+    private JsonWriter begin(long line, String input) throws IOException {
+        JsonWriter json = new JsonWriter(new NonClosingWriter(out));
+        json.beginObject();
+        json.name("line").value(line);
+        json.name("input").value(input);
+        return json;
+    }
+
+    private void end(JsonWriter json) throws IOException {
+        json.endObject();
+        json.close();
+        out.write('\n');
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Lets a {@link JsonWriter} per line be closed, which is what verifies the document is complete,
+     * without closing the shared output.
+     */
+    private static final class NonClosingWriter extends Writer {
+        private final Writer delegate;
+
+        private NonClosingWriter(Writer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            delegate.write(buffer, offset, length);
+        }
+
+        @Override
+        public void write(String string, int offset, int length) throws IOException {
+            delegate.write(string, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -13,6 +13,12 @@ public class AllianceHistory {
     private int record_id;
     private String start_date;
 
+    AllianceHistory(int alliance_id, int record_id, String start_date) {
+        this.alliance_id = alliance_id;
+        this.record_id = record_id;
+        this.start_date = start_date;
+    }
+
     @Override
     public String toString() {
         return "AllianceHistory{" +
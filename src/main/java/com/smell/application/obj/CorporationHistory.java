@@ -14,6 +14,13 @@ public class CorporationHistory {
     private int record_id;
     private String start_date;
 
+    CorporationHistory(int corporation_id, boolean is_deleted, int record_id, String start_date) {
+        this.corporation_id = corporation_id;
+        this.is_deleted = is_deleted;
+        this.record_id = record_id;
+        this.start_date = start_date;
+    }
+
     @Override
     public String toString() {
         return "CorporationHistory{" +
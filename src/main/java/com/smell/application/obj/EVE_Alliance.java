@@ -11,6 +11,10 @@ public class EVE_Alliance {
 
     private String name;
 
+    EVE_Alliance(String name) {
+        this.name = name;
+    }
+
     public String getName() {
         return name;
     }
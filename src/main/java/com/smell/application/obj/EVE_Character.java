@@ -11,6 +11,10 @@ public class EVE_Character {
 
     private String name;
 
+    EVE_Character(String name) {
+        this.name = name;
+    }
+
     public String getName() {
         return name;
     }
@@ -12,6 +12,11 @@ public class EVE_Corporation {
     private int alliance_id;
     private String name;
 
+    EVE_Corporation(int alliance_id, String name) {
+        this.alliance_id = alliance_id;
+        this.name = name;
+    }
+
     public int getAlliance_id() {
         return alliance_id;
     }
@@ -0,0 +1,31 @@
+package com.smell.application.obj;
+
+public class EVE_Ids {
+
+    /**
+     *
+     * @author  FlynnDynamics
+     * @version ${version}
+     * @since   18/10/26
+     */
+
+    private EVE_Name[] characters;
+
+    EVE_Ids(EVE_Name[] characters) {
+        this.characters = characters;
+    }
+
+    @Override
+    public String toString() {
+        return "EVE_Ids{" +
+                "characters=" + characters.length +
+                '}';
+    }
+
+    /**
+     * @return the characters whose names were resolved, never null
+     */
+    public EVE_Name[] getCharacters() {
+        return characters;
+    }
+}
@@ -0,0 +1,42 @@
+package com.smell.application.obj;
+
+public class EVE_Name {
+
+    /**
+     *
+     * @author  FlynnDynamics
+     * @version ${version}
+     * @since   18/10/26
+     */
+
+    private String category;
+    private long id;
+    private String name;
+
+    EVE_Name(String category, long id, String name) {
+        this.category = category;
+        this.id = id;
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return "EVE_Name{" +
+                "category='" + category + '\'' +
+                ", id=" + id +
+                ", name='" + name + '\'' +
+                '}';
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,341 @@
+package com.smell.application.obj;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Hand-written Gson type adapters for the ESI data objects of this package.
+ * They replace Gson's reflective adapter: every object is decoded in a single pass over the JSON tokens into
+ * primitive fields, fields the application does not use (ESI sends a lot more about corporations than a name)
+ * are skipped without being materialized, and history arrays are decoded straight into their array type.
+ * <p>
+ * Usage:
+ * <pre>
+ * Gson gson = EsiTypeAdapters.register(new GsonBuilder()).create();
+ * </pre>
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public final class EsiTypeAdapters {
+
+    private EsiTypeAdapters() {
+    }
+
+    /**
+     * Registers the adapters for all ESI data objects, including the history arrays, on the given builder.
+     *
+     * @param builder The builder of the Gson instance that will decode ESI responses.
+     * @return The same builder, for chaining.
+     */
+    public static GsonBuilder register(GsonBuilder builder) {
+        TypeAdapter<CorporationHistory> corporationHistoryAdapter = new CorporationHistoryAdapter().nullSafe();
+        TypeAdapter<AllianceHistory> allianceHistoryAdapter = new AllianceHistoryAdapter().nullSafe();
+        TypeAdapter<EVE_Name> nameAdapter = new NameAdapter().nullSafe();
+        return builder
+                .registerTypeAdapter(EVE_Character.class, new CharacterAdapter().nullSafe())
+                .registerTypeAdapter(EVE_Corporation.class, new CorporationAdapter().nullSafe())
+                .registerTypeAdapter(EVE_Alliance.class, new AllianceAdapter().nullSafe())
+                .registerTypeAdapter(EVE_Name.class, nameAdapter)
+                .registerTypeAdapter(EVE_Ids.class, new IdsAdapter(nameAdapter).nullSafe())
+                .registerTypeAdapter(CorporationHistory.class, corporationHistoryAdapter)
+                .registerTypeAdapter(AllianceHistory.class, allianceHistoryAdapter)
+                .registerTypeAdapter(EVE_Name[].class,
+                        new ArrayAdapter<>(nameAdapter, EVE_Name[]::new).nullSafe())
+                .registerTypeAdapter(CorporationHistory[].class,
+                        new ArrayAdapter<>(corporationHistoryAdapter, CorporationHistory[]::new).nullSafe())
+                .registerTypeAdapter(AllianceHistory[].class,
+                        new ArrayAdapter<>(allianceHistoryAdapter, AllianceHistory[]::new).nullSafe());
+    }
+
+    /**
+     * Returns true if the next value is a JSON null, consuming it. Null fields keep their default value.
+     */
+    private static boolean skipNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    static final class CharacterAdapter extends TypeAdapter<EVE_Character> {
+        @Override
+        public void write(JsonWriter out, EVE_Character value) throws IOException {
+            out.beginObject();
+            out.name("name").value(value.getName());
+            out.endObject();
+        }
+
+        @Override
+        public EVE_Character read(JsonReader in) throws IOException {
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (skipNull(in)) {
+                    continue;
+                }
+                if (field.equals("name")) {
+                    name = in.nextString();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new EVE_Character(name);
+        }
+    }
+
+    static final class CorporationAdapter extends TypeAdapter<EVE_Corporation> {
+        @Override
+        public void write(JsonWriter out, EVE_Corporation value) throws IOException {
+            out.beginObject();
+            out.name("alliance_id").value(value.getAlliance_id());
+            out.name("name").value(value.getName());
+            out.endObject();
+        }
+
+        @Override
+        public EVE_Corporation read(JsonReader in) throws IOException {
+            int allianceId = 0;
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (skipNull(in)) {
+                    continue;
+                }
+                switch (field) {
+                    case "alliance_id" -> allianceId = in.nextInt();
+                    case "name" -> name = in.nextString();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new EVE_Corporation(allianceId, name);
+        }
+    }
+
+    static final class AllianceAdapter extends TypeAdapter<EVE_Alliance> {
+        @Override
+        public void write(JsonWriter out, EVE_Alliance value) throws IOException {
+            out.beginObject();
+            out.name("name").value(value.getName());
+            out.endObject();
+        }
+
+        @Override
+        public EVE_Alliance read(JsonReader in) throws IOException {
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (skipNull(in)) {
+                    continue;
+                }
+                if (field.equals("name")) {
+                    name = in.nextString();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new EVE_Alliance(name);
+        }
+    }
+
+    static final class NameAdapter extends TypeAdapter<EVE_Name> {
+        @Override
+        public void write(JsonWriter out, EVE_Name value) throws IOException {
+            out.beginObject();
+            out.name("category").value(value.getCategory());
+            out.name("id").value(value.getId());
+            out.name("name").value(value.getName());
+            out.endObject();
+        }
+
+        @Override
+        public EVE_Name read(JsonReader in) throws IOException {
+            String category = null;
+            long id = 0;
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (skipNull(in)) {
+                    continue;
+                }
+                switch (field) {
+                    case "category" -> category = in.nextString();
+                    case "id" -> id = in.nextLong();
+                    case "name" -> name = in.nextString();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new EVE_Name(category, id, name);
+        }
+    }
+
+    /**
+     * Decodes the response of the IDs endpoint, keeping only the characters: a name can match an entity of every
+     * category at once, and only characters are searched.
+     */
+    static final class IdsAdapter extends TypeAdapter<EVE_Ids> {
+        private final TypeAdapter<EVE_Name> nameAdapter;
+
+        IdsAdapter(TypeAdapter<EVE_Name> nameAdapter) {
+            this.nameAdapter = nameAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, EVE_Ids value) throws IOException {
+            out.beginObject();
+            out.name("characters").beginArray();
+            for (EVE_Name character : value.getCharacters()) {
+                nameAdapter.write(out, character);
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public EVE_Ids read(JsonReader in) throws IOException {
+            List<EVE_Name> characters = new ArrayList<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (skipNull(in)) {
+                    continue;
+                }
+                if (field.equals("characters")) {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        if (skipNull(in)) {
+                            continue;
+                        }
+                        EVE_Name character = nameAdapter.read(in);
+                        characters.add(new EVE_Name("character", character.getId(), character.getName()));
+                    }
+                    in.endArray();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new EVE_Ids(characters.toArray(new EVE_Name[0]));
+        }
+    }
+
+    static final class CorporationHistoryAdapter extends TypeAdapter<CorporationHistory> {
+        @Override
+        public void write(JsonWriter out, CorporationHistory value) throws IOException {
+            out.beginObject();
+            out.name("corporation_id").value(value.getCorporation_id());
+            out.name("is_deleted").value(value.isIs_deleted());
+            out.name("record_id").value(value.getRecord_id());
+            out.name("start_date").value(value.getStart_date());
+            out.endObject();
+        }
+
+        @Override
+        public CorporationHistory read(JsonReader in) throws IOException {
+            int corporationId = 0;
+            boolean deleted = false;
+            int recordId = 0;
+            String startDate = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (skipNull(in)) {
+                    continue;
+                }
+                switch (field) {
+                    case "corporation_id" -> corporationId = in.nextInt();
+                    case "is_deleted" -> deleted = in.nextBoolean();
+                    case "record_id" -> recordId = in.nextInt();
+                    case "start_date" -> startDate = in.nextString();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new CorporationHistory(corporationId, deleted, recordId, startDate);
+        }
+    }
+
+    static final class AllianceHistoryAdapter extends TypeAdapter<AllianceHistory> {
+        @Override
+        public void write(JsonWriter out, AllianceHistory value) throws IOException {
+            out.beginObject();
+            out.name("alliance_id").value(value.getAlliance_id());
+            out.name("record_id").value(value.getRecord_id());
+            out.name("start_date").value(value.getStart_date());
+            out.endObject();
+        }
+
+        @Override
+        public AllianceHistory read(JsonReader in) throws IOException {
+            int allianceId = 0;
+            int recordId = 0;
+            String startDate = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (skipNull(in)) {
+                    continue;
+                }
+                switch (field) {
+                    case "alliance_id" -> allianceId = in.nextInt();
+                    case "record_id" -> recordId = in.nextInt();
+                    case "start_date" -> startDate = in.nextString();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new AllianceHistory(allianceId, recordId, startDate);
+        }
+    }
+
+    /**
+     * Decodes a JSON array directly into a typed Java array using the adapter of its elements.
+     */
+    static final class ArrayAdapter<E> extends TypeAdapter<E[]> {
+        private final TypeAdapter<E> elementAdapter;
+        private final IntFunction<E[]> arrayFactory;
+
+        ArrayAdapter(TypeAdapter<E> elementAdapter, IntFunction<E[]> arrayFactory) {
+            this.elementAdapter = elementAdapter;
+            this.arrayFactory = arrayFactory;
+        }
+
+        @Override
+        public void write(JsonWriter out, E[] value) throws IOException {
+            out.beginArray();
+            for (E element : value) {
+                elementAdapter.write(out, element);
+            }
+            out.endArray();
+        }
+
+        @Override
+        public E[] read(JsonReader in) throws IOException {
+            List<E> elements = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                elements.add(elementAdapter.read(in));
+            }
+            in.endArray();
+            return elements.toArray(arrayFactory.apply(elements.size()));
+        }
+    }
+}
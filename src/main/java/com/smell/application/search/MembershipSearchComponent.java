@@ -1,27 +1,47 @@
 package com.smell.application.search;
 
+import com.smell.application.structure.BatchSearchListener;
 import com.smell.application.structure.CharacterDataService;
+import com.smell.application.structure.CharacterSnapshot;
 import com.smell.application.structure.ErrorNotificationManager;
-import com.smell.application.structure.EveService;
-import com.smell.application.user.Character;
+import com.smell.application.structure.SearchListener;
+import com.smell.application.user.Corporation;
 import com.smell.application.views.CharacterView;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.checkbox.Checkbox;
 import com.vaadin.flow.component.html.Image;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
-import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.component.progressbar.ProgressBar;
+import com.vaadin.flow.component.tabs.Tab;
+import com.vaadin.flow.component.tabs.TabSheet;
+import com.vaadin.flow.component.textfield.TextArea;
 
-import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 /**
  * MembershipSearchComponent is a VerticalLayout component that provides functionality
- * for searching and displaying EVE Online characters. It uses a TextField for URL input,
+ * for searching and displaying EVE Online characters. It uses a TextArea for URL input,
  * a Button to trigger the search, and an Image to display the character portrait.
  * <p>
- * The component integrates with EveService to fetch character data based on the provided
+ * The component integrates with CharacterDataService to fetch character data based on the provided
  * URL, and it displays detailed character information through a CharacterView component.
+ * Recently searched characters are served from a cache; a checkbox reassembles them from the cached ESI responses
+ * instead, and a label tells how long ago the displayed data was assembled.
+ * <p>
+ * Searches run in the background: corporations are pushed into the CharacterView as they resolve, a progress bar
+ * shows how far the search got, and a cancel button abandons it. A search is also cancelled when a new one starts or
+ * the component is detached, e.g. because the tab was closed, so nobody pays for results no one will see.
+ * <p>
+ * A pasted list of characters, e.g. the member list of a local chat or several zKillboard URLs, is searched as one
+ * batch whose corporation and alliance lookups are shared, and every character is shown in a tab of its own.
  *
  * @author FlynnDynamics
  * @version ${version}
@@ -30,27 +50,36 @@ import java.util.logging.Logger;
 public class MembershipSearchComponent extends VerticalLayout {
 
     private static final Logger LOGGER = Logger.getLogger(MembershipSearchComponent.class.getName());
+    private static final int MAX_BATCH_CHARACTERS = 100;
 
-    private TextField urlField;
+    private TextArea urlField;
     private Button searchButton;
+    private Checkbox reassemble;
+    private Span dataAge;
+    private ProgressBar progressBar;
+    private Button cancelButton;
+    private SearchRun currentSearch;
     private Image characterImage;
-    private EveService eveService;
+    private CharacterDataService characterDataService;
     private CharacterView characterView;
+    private TabSheet resultTabs;
     private SearchHelper searchHelper;
 
     /**
      * Constructor for MembershipSearchComponent, initializes the component with dependencies.
-     * Sets up the layout and integration with EveService for data fetching.
+     * Sets up the layout and integration with CharacterDataService for data fetching.
      *
-     * @param eveService The service used to fetch character data from the EVE Online API.
+     * @param characterDataService The service used to assemble character data from the EVE Online API.
      */
-    public MembershipSearchComponent(EveService eveService) {
+    public MembershipSearchComponent(CharacterDataService characterDataService) {
         setSizeFull();
         setDefaultHorizontalComponentAlignment(Alignment.CENTER);
 
-        this.eveService = eveService;
+        this.characterDataService = characterDataService;
         characterView = new CharacterView();
         characterView.setVisible(false);
+        resultTabs = new TabSheet();
+        resultTabs.setVisible(false);
 
         searchHelper = new SearchHelper();
         urlField = searchHelper.getUrlField();
@@ -58,7 +87,7 @@ public class MembershipSearchComponent extends VerticalLayout {
         searchButton.addClickListener(event -> searchCharacter());
 
         createSearch();
-        add(characterView);
+        add(characterView, resultTabs);
     }
 
     /**
@@ -70,12 +99,22 @@ public class MembershipSearchComponent extends VerticalLayout {
         characterImage.setMaxHeight("128px");
         characterImage.setSrc("https://images.evetech.net/characters/null/portrait");
 
-        HorizontalLayout searchLayout = new HorizontalLayout(urlField, searchButton);
+        reassemble = new Checkbox("Reassemble");
+        dataAge = new Span();
+        dataAge.setVisible(false);
+
+        progressBar = new ProgressBar();
+        progressBar.setWidth("300px");
+        progressBar.setVisible(false);
+        cancelButton = new Button("Cancel", event -> cancelSearch());
+        cancelButton.setVisible(false);
+
+        HorizontalLayout searchLayout = new HorizontalLayout(urlField, searchButton, cancelButton, reassemble);
         searchLayout.setWidthFull();
         searchLayout.setDefaultVerticalComponentAlignment(Alignment.END);
         searchLayout.setJustifyContentMode(JustifyContentMode.CENTER);
 
-        VerticalLayout imageLayout = new VerticalLayout(characterImage);
+        VerticalLayout imageLayout = new VerticalLayout(characterImage, progressBar, dataAge);
         imageLayout.setWidthFull();
         imageLayout.setDefaultHorizontalComponentAlignment(Alignment.CENTER);
 
@@ -83,43 +122,291 @@ public class MembershipSearchComponent extends VerticalLayout {
     }
 
     /**
-     * Triggered by the search button click, this method processes the URL entered in the text field,
-     * extracts the character ID, and fetches the character portrait and details.
-     * Logs actions and displays notifications on errors or invalid inputs.
+     * Triggered by the search button click, this method parses the characters entered in the text area.
+     * A single URL or ID is searched on its own, with its portrait; a pasted list is searched as a batch whose
+     * characters are shown in a tab each. Logs actions and displays notifications on errors or invalid inputs.
      */
     private void searchCharacter() {
-        String url = urlField.getValue();
-        try {
-            Long characterId = SearchHelper.extractCharacterIdFromUrl(url);
+        SearchHelper.SearchInput input = SearchHelper.parseSearchInput(urlField.getValue());
+        if (!input.invalid().isEmpty()) {
+            LOGGER.warning("Ignoring invalid search entries: " + input.invalid());
+            Notification.show("Ignored " + input.invalid().size() + " entries that are neither a character URL, ID nor name.");
+        }
+        if (input.size() == 0) {
+            LOGGER.severe("No character found in search input");
+            Notification.show("Invalid URL or problem extracting the ID.");
+            return;
+        }
+        if (input.size() == 1 && input.characterNames().isEmpty()) {
+            long characterId = input.characterIds().get(0);
             LOGGER.info("Search initiated for character ID: " + characterId);
             characterImage.setSrc("https://images.evetech.net/characters/" + characterId + "/portrait");
             characterImage.setVisible(true);
             processMembership(characterId);
-        } catch (Exception e) {
-            LOGGER.severe("Failed to extract character ID from URL: " + e.getMessage());
-            Notification.show("Invalid URL or problem extracting the ID.");
+            return;
+        }
+        if (input.size() > MAX_BATCH_CHARACTERS) {
+            Notification.show("At most " + MAX_BATCH_CHARACTERS + " characters can be searched at once.");
+            return;
         }
+        LOGGER.info("Batch search initiated for " + input.size() + " characters");
+        processMemberships(input);
     }
 
     /**
-     * Fetches detailed character data using the character ID and updates the CharacterView.
-     * Displays the character information in the UI. Logs the process and handles exceptions.
+     * Starts a background search for the character and streams its results into the CharacterView.
+     * The pending corporations are shown as soon as the corporation history is in, and replaced one by one as they
+     * resolve; every update is pushed to the browser through {@link UI#access}.
      *
      * @param id The character ID used to fetch character data.
-     * @throws IOException          if there is an error in the network or server communication.
-     * @throws InterruptedException if the thread is interrupted while waiting for data.
      */
     private void processMembership(long id) {
-        try {
-            Character character = CharacterDataService.getCharacterData(id, eveService);
-            characterView.updateList(character);
-            characterView.setVisible(true);
-            LOGGER.info("Membership processed for character ID: " + id);
-        } catch (IOException | InterruptedException e) {
-            LOGGER.severe("Error fetching character data: " + e.getMessage());
-            Notification.show("Failed to load character data, please try again.");
-        } finally {
-            ErrorNotificationManager.showAndClearMessages();
+        SearchRun search = startSearch("character ID " + id);
+        resultTabs.setVisible(false);
+        search.future = characterDataService.searchCharacter(id, reassemble.getValue(), search.new CharacterStream(id, characterView));
+    }
+
+    /**
+     * Starts a background search for several characters at once, see {@link CharacterDataService#searchCharacters},
+     * and streams every character into a CharacterView of its own tab. The progress bar counts finished characters.
+     *
+     * @param input The characters to search.
+     */
+    private void processMemberships(SearchHelper.SearchInput input) {
+        SearchRun search = startSearch(input.size() + " characters");
+        search.characters = input.size(); // Fixed up front, so the progress bar never moves backwards
+        characterImage.setVisible(false);
+        characterView.setVisible(false);
+        remove(resultTabs);
+        resultTabs = new TabSheet();
+        resultTabs.setSizeFull();
+        add(resultTabs);
+        search.future = characterDataService.searchCharacters(input.characterIds(), input.characterNames(),
+                reassemble.getValue(), search);
+    }
+
+    /**
+     * Cancels the previous search and prepares the controls for a new one.
+     *
+     * @param description What is searched, for the log.
+     * @return The new current search.
+     */
+    private SearchRun startSearch(String description) {
+        if (currentSearch != null) {
+            currentSearch.cancel(); // Superseded by the new search
+        }
+        dataAge.setVisible(false);
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(true);
+        cancelButton.setVisible(true);
+        searchButton.setEnabled(false);
+
+        SearchRun search = new SearchRun(UI.getCurrent(), description);
+        currentSearch = search;
+        return search;
+    }
+
+    /**
+     * Cancels the running search, keeping whatever it has shown so far.
+     */
+    private void cancelSearch() {
+        if (currentSearch != null) {
+            currentSearch.cancel();
+            LOGGER.info("Search cancelled for " + currentSearch.description);
+            Notification.show("Search cancelled.");
+        }
+        finishSearch();
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        super.onDetach(detachEvent);
+        if (currentSearch != null) {
+            currentSearch.cancel();
+            currentSearch = null;
+        }
+    }
+
+    /**
+     * Restores the search controls once a search has ended.
+     */
+    private void finishSearch() {
+        currentSearch = null;
+        progressBar.setVisible(false);
+        cancelButton.setVisible(false);
+        searchButton.setEnabled(true);
+        getUI().ifPresent(ui -> ErrorNotificationManager.get(ui).showAndClearMessages());
+    }
+
+    /**
+     * Describes how long ago the displayed data was assembled. The ESI responses it was assembled from may be older.
+     *
+     * @param age The age of the displayed snapshot.
+     * @return A short text for the data age label.
+     */
+    private static String describeAge(Duration age) {
+        if (age.toSeconds() < 10) {
+            return "Assembled just now";
+        }
+        if (age.toMinutes() < 1) {
+            return "Assembled " + age.toSeconds() + " seconds ago";
+        }
+        return "Assembled " + age.toMinutes() + " minutes ago";
+    }
+
+    /**
+     * One background search, single or batch. Only the current search may update the UI; once cancelled or
+     * superseded, it drops every further callback. As a {@link BatchSearchListener} it opens a tab per character
+     * of a batch.
+     */
+    private class SearchRun implements BatchSearchListener {
+        private final UI ui;
+        private final ErrorNotificationManager errors;
+        private final String description;
+        private volatile boolean cancelled;
+        private volatile Future<?> future;
+        /**
+         * The number of characters of the batch: the parsed input, less the names that match no character.
+         */
+        private int characters;
+        private int finishedCharacters;
+
+        SearchRun(UI ui, String description) {
+            this.ui = ui;
+            this.errors = ErrorNotificationManager.get(ui);
+            this.description = description;
+        }
+
+        void cancel() {
+            cancelled = true;
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+
+        private void push(Runnable update) {
+            if (!cancelled) {
+                ui.access(() -> {
+                    if (!cancelled && currentSearch == this) {
+                        update.run();
+                    }
+                });
+            }
+        }
+
+        private void addError(String summary, String detail) {
+            if (!cancelled) {
+                errors.addError(summary, detail); // Shown when the search ends
+            }
+        }
+
+        private void characterFinished() {
+            finishedCharacters++;
+            progressBar.setIndeterminate(false);
+            progressBar.setValue(Math.min((double) finishedCharacters / Math.max(characters, 1), 1));
+        }
+
+        @Override
+        public SearchListener onCharacter(long characterId) {
+            CharacterView view = new CharacterView();
+            CharacterStream stream = new CharacterStream(characterId, view);
+            push(() -> stream.tab = resultTabs.add(String.valueOf(characterId), view));
+            return stream;
+        }
+
+        @Override
+        public void onUnknownNames(List<String> names) {
+            addError("No character found for " + names.size() + " names", String.join(", ", names));
+            push(() -> characters -= names.size());
+        }
+
+        @Override
+        public void onError(String summary, String detail) {
+            addError(summary, detail);
+        }
+
+        @Override
+        public void onDone() {
+            push(() -> {
+                finishSearch();
+                LOGGER.info("Memberships processed for " + description);
+            });
+        }
+
+        /**
+         * Pushes the results of one character into its CharacterView: the main view for a single search, or the
+         * view of its tab for a batch.
+         */
+        private class CharacterStream implements SearchListener {
+            private final long characterId;
+            private final CharacterView view;
+            private Tab tab;
+
+            CharacterStream(long characterId, CharacterView view) {
+                this.characterId = characterId;
+                this.view = view;
+            }
+
+            @Override
+            public void onCorporations(List<Corporation> corporations) {
+                push(() -> {
+                    view.showPending(corporations);
+                    view.setVisible(true);
+                });
+            }
+
+            @Override
+            public void onCorporation(int index, Corporation corporation) {
+                push(() -> view.updateCorporation(index, corporation));
+            }
+
+            @Override
+            public void onError(String summary, String detail) {
+                addError(summary, detail);
+            }
+
+            @Override
+            public void onProgress(int completed, int total) {
+                if (view != characterView) {
+                    return; // A batch counts finished characters instead
+                }
+                push(() -> {
+                    progressBar.setIndeterminate(false);
+                    progressBar.setValue(total > 0 ? (double) completed / total : 1);
+                });
+            }
+
+            @Override
+            public void onComplete(CharacterSnapshot snapshot) {
+                push(() -> {
+                    view.updateList(snapshot.getCharacter());
+                    view.setVisible(true);
+                    if (tab != null) {
+                        tab.setLabel(snapshot.getCharacter().name());
+                        characterFinished();
+                        return;
+                    }
+                    dataAge.setText(describeAge(snapshot.getAge()));
+                    dataAge.setVisible(true);
+                    finishSearch();
+                    LOGGER.info("Membership processed for character ID: " + characterId);
+                });
+            }
+
+            @Override
+            public void onFailure(Exception failure) {
+                push(() -> {
+                    LOGGER.severe("Error fetching character data: " + failure.getMessage());
+                    if (tab != null) {
+                        tab.setLabel(characterId + " (failed)");
+                        addError("Failed to load character data", failure.getMessage());
+                        characterFinished();
+                        return;
+                    }
+                    Notification.show("Failed to load character data, please try again.");
+                    finishSearch();
+                });
+            }
         }
     }
 }
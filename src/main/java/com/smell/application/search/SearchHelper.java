@@ -2,11 +2,17 @@ package com.smell.application.search;
 
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.notification.Notification;
-import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.component.textfield.TextArea;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 /**
- * SearchHelper provides utilities for extracting a character ID from a URL and initializing
+ * SearchHelper provides utilities for extracting character IDs and names from the search input and initializing
  * search-related components within a Vaadin application. This class encapsulates the functionality
  * needed to handle the input of URLs, initiate searches, and log outcomes of such operations.
  * The helper is designed to be reusable across different parts of the application that require
@@ -15,7 +21,7 @@ import java.util.logging.Logger;
  * Usage:
  * <pre>
  * SearchHelper helper = new SearchHelper();
- * TextField urlField = helper.getUrlField();
+ * TextArea urlField = helper.getUrlField();
  * Button searchButton = helper.getSearchButton();
  * searchButton.addClickListener(e -> {
  *     Long characterId = SearchHelper.extractCharacterIdFromUrl(urlField.getValue());
@@ -31,7 +37,9 @@ import java.util.logging.Logger;
  */
 public class SearchHelper {
     private static final Logger LOGGER = Logger.getLogger(SearchHelper.class.getName());
-    private TextField urlField;
+    private static final Pattern CHARACTER_NAME = Pattern.compile("[\\p{Alnum} .'-]{3,37}");
+    private static final Pattern SEPARATORS = Pattern.compile("[\\r\\n,]+");
+    private TextArea urlField;
     private Button searchButton;
 
     /**
@@ -42,22 +50,24 @@ public class SearchHelper {
     }
 
     /**
-     * Initializes the search components, specifically the text field and search button.
-     * The text field is pre-configured with a placeholder and a fixed width.
+     * Initializes the search components, specifically the text area and search button.
+     * The text area is pre-configured with a placeholder and a fixed width; it accepts a single character as well as
+     * a pasted list, e.g. the member list of a local chat or a handful of zKillboard URLs.
      */
     private void createSearchComponents() {
-        urlField = new TextField("Character URL");
+        urlField = new TextArea("Character URLs, IDs or names");
         urlField.setPlaceholder("https://zkillboard.com/character/454518485/");
-        urlField.setWidth("300px");
+        urlField.setWidth("400px");
+        urlField.setMaxHeight("200px");
 
         searchButton = new Button("Search");
     }
 
     /**
-     * Returns the text field used for URL input.
-     * @return the text field for URL input
+     * Returns the text area used for URL input.
+     * @return the text area for URL input
      */
-    public TextField getUrlField() {
+    public TextArea getUrlField() {
         return urlField;
     }
 
@@ -71,21 +81,93 @@ public class SearchHelper {
 
     /**
      * Extracts and returns the character ID from the given URL.
-     * Logs the outcome of the operation, including successful extraction and errors.
+     * Logs the outcome of the operation, including successful extraction and errors, and notifies the user if
+     * the URL contains no valid character ID.
      *
      * @param url the URL from which to extract the character ID
      * @return the extracted character ID, or null if extraction fails
      */
     public static Long extractCharacterIdFromUrl(String url) {
-        try {
-            String[] pathSegments = url.split("/");
-            Long characterId = Long.parseLong(pathSegments[pathSegments.length - 1]);
+        Long characterId = parseCharacterId(url);
+        if (characterId != null) {
             LOGGER.info("Character ID extracted successfully: " + characterId);
-            return characterId;
-        } catch (NumberFormatException e) {
-            LOGGER.severe("The URL must contain a valid character ID. Error: " + e.getMessage());
+        } else {
+            LOGGER.severe("The URL must contain a valid character ID: " + url);
             Notification.show("The URL must contain a valid character ID.", 3000, Notification.Position.MIDDLE);
+        }
+        return characterId;
+    }
+
+    /**
+     * Extracts the character ID from a zKillboard or similar character URL, or from a bare character ID.
+     * The ID is the last path segment; a trailing slash is allowed. Unlike {@link #extractCharacterIdFromUrl},
+     * this method has no side effects and can be used outside of a UI, e.g. by the batch mode.
+     *
+     * @param url the URL or ID from which to extract the character ID
+     * @return the extracted character ID, or null if the input contains none
+     */
+    public static Long parseCharacterId(String url) {
+        try {
+            String[] pathSegments = url.trim().split("/");
+            return Long.parseLong(pathSegments[pathSegments.length - 1]);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
             return null;
         }
     }
+
+    /**
+     * Splits the search input into the characters it lists. Entries are separated by line breaks or commas; an entry
+     * whose whitespace-separated parts are all URLs or IDs yields a character ID per part, any other entry that looks
+     * like an EVE character name is taken as a name, e.g. a line copied from the member list of a local chat.
+     * Duplicates are dropped.
+     *
+     * @param input the pasted text
+     * @return the character IDs and names found, and the entries that are neither
+     */
+    public static SearchInput parseSearchInput(String input) {
+        Set<Long> characterIds = new LinkedHashSet<>();
+        Set<String> characterNames = new LinkedHashSet<>();
+        List<String> invalid = new ArrayList<>();
+        for (String entry : SEPARATORS.split(input == null ? "" : input)) {
+            entry = entry.strip();
+            if (entry.isEmpty()) {
+                continue;
+            }
+
+            List<Long> ids = new ArrayList<>();
+            for (String part : entry.split("\\s+")) {
+                Long characterId = parseCharacterId(part);
+                if (characterId == null) {
+                    ids = null;
+                    break;
+                }
+                ids.add(characterId);
+            }
+            if (ids != null) {
+                characterIds.addAll(ids);
+            } else if (CHARACTER_NAME.matcher(entry).matches() && !entry.contains("/")) {
+                characterNames.add(entry.replaceAll("\\s+", " "));
+            } else {
+                invalid.add(entry);
+            }
+        }
+        return new SearchInput(List.copyOf(characterIds), List.copyOf(characterNames), List.copyOf(invalid));
+    }
+
+    /**
+     * The characters listed in the search input, see {@link #parseSearchInput}.
+     *
+     * @param characterIds   the characters given by URL or ID, in input order
+     * @param characterNames the characters given by name, in input order
+     * @param invalid        the entries that are neither
+     */
+    public record SearchInput(List<Long> characterIds, List<String> characterNames, List<String> invalid) {
+
+        /**
+         * @return the number of characters listed
+         */
+        public int size() {
+            return characterIds.size() + characterNames.size();
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package com.smell.application.structure;
+
+import java.util.List;
+
+/**
+ * Receives the results of a search for several characters at once, see {@link CharacterDataService#searchCharacters}.
+ * Callbacks arrive on the background threads running the search; every method but {@link #onCharacter} does nothing
+ * by default.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public interface BatchSearchListener {
+
+    /**
+     * Called once per distinct character, in input order, before the character is searched.
+     *
+     * @param characterId The character about to be searched.
+     * @return The listener receiving the results of this character.
+     */
+    SearchListener onCharacter(long characterId);
+
+    /**
+     * Called if some of the given names match no character.
+     *
+     * @param names The names that could not be resolved.
+     */
+    default void onUnknownNames(List<String> names) {
+    }
+
+    /**
+     * Called for a failure that concerns the whole batch rather than a single character, e.g. if the names could
+     * not be resolved at all.
+     *
+     * @param summary What failed.
+     * @param detail  The cause of the failure.
+     */
+    default void onError(String summary, String detail) {
+    }
+
+    /**
+     * Called once after every character has completed or failed, or the batch was cancelled.
+     */
+    default void onDone() {
+    }
+}
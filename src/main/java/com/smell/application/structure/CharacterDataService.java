@@ -1,38 +1,389 @@
 package com.smell.application.structure;
 
 import com.smell.application.obj.*;
+import com.smell.application.structure.cache.CharacterResultCache;
+import com.smell.application.structure.snowflake.SnowflakeRegistry;
 import com.smell.application.user.Alliance;
 import com.smell.application.user.Character;
 import com.smell.application.user.Corporation;
-import com.vaadin.flow.component.notification.Notification;
+import com.smell.application.user.EveDates;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 /**
+ * Assembles the membership timeline of a character from ESI data. The service is a Spring singleton; it remembers
+ * the alliance histories it has seen in a {@link MembershipHistoryStore}, so re-searching a known character only
+ * requests the ones that can actually have changed for its tenures. Assembled characters are kept in a {@link CharacterResultCache} for a short while,
+ * so several people searching the same character within minutes share one assembly.
+ * <p>
+ * Several characters can be searched together, see {@link #searchCharacters}: their assemblies share the alliance
+ * history and name lookups, so a pasted local chat costs far fewer ESI requests than searching each pilot in turn.
+ *
  * @author FlynnDynamics
  * @version ${version}
  * @since 24/04/24
  */
-
+@Service
 public class CharacterDataService {
     private static final Logger LOGGER = Logger.getLogger(CharacterDataService.class.getName());
 
+    private final EveService eveService;
+    private final SnowflakeRegistry snowflakes;
+    private final MembershipHistoryStore historyStore;
+    private final CharacterResultCache resultCache;
+    private final RequestCoalescer inFlightSearches = new RequestCoalescer();
+    private final ExecutorService searchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong cancelledSearches = new AtomicLong();
+    private final AtomicInteger activeSearches = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+
+    public CharacterDataService(EveService eveService, SnowflakeRegistry snowflakes, EsiProperties properties, MeterRegistry meterRegistry) {
+        this.eveService = eveService;
+        this.snowflakes = snowflakes;
+        this.historyStore = new MembershipHistoryStore(properties.getHistoryStoreMaxEntries());
+        this.resultCache = new CharacterResultCache(properties.getResultCacheMaxEntries(), properties.getResultCacheTtl());
+        this.meterRegistry = meterRegistry;
+        registerMetrics();
+    }
+
+    /**
+     * Publishes the gauges and counters that are read from the state of the service. Searches themselves are timed
+     * end to end as {@code membership.searches}, by outcome, see {@link #recordSearch}:
+     * <ul>
+     *     <li>{@code membership.searches.active}: the characters being searched right now;</li>
+     *     <li>{@code membership.searches.cancelled}: the searches cancelled before they completed;</li>
+     *     <li>{@code membership.searches.inflight} and {@code membership.searches.coalesced}: the distinct assemblies
+     *     in flight and the searches that attached to one of them;</li>
+     *     <li>{@code cache.gets}, {@code cache.evictions} and {@code cache.size} with {@code cache=characters}:
+     *     the result cache;</li>
+     *     <li>{@code membership.history.reused}: the alliance history requests the history store saved.</li>
+     * </ul>
+     */
+    private void registerMetrics() {
+        Gauge.builder("membership.searches.active", activeSearches, AtomicInteger::get)
+                .description("Characters being searched")
+                .register(meterRegistry);
+        FunctionCounter.builder("membership.searches.cancelled", cancelledSearches, AtomicLong::get)
+                .description("Searches cancelled before they completed")
+                .register(meterRegistry);
+        Gauge.builder("membership.searches.inflight", inFlightSearches, RequestCoalescer::getInFlightCount)
+                .description("Distinct character assemblies in flight")
+                .register(meterRegistry);
+        FunctionCounter.builder("membership.searches.coalesced", inFlightSearches, RequestCoalescer::getCoalescedCount)
+                .description("Searches that attached to an assembly of the same character in flight")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("cache.gets", resultCache, CharacterResultCache::getHitCount)
+                .tags("cache", "characters", "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", resultCache, CharacterResultCache::getMissCount)
+                .tags("cache", "characters", "result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", resultCache, CharacterResultCache::getEvictionCount)
+                .tags("cache", "characters")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", resultCache, CharacterResultCache::size)
+                .tags("cache", "characters")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("membership.history.reused", historyStore, MembershipHistoryStore::getReusedHistoryCount)
+                .description("Alliance histories served from the history store without asking ESI")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the end-to-end latency of a character search.
+     *
+     * @param startNanos The {@link System#nanoTime()} the search started at.
+     * @param outcome    {@code cached}, {@code complete}, {@code incomplete}, {@code failed} or {@code cancelled}.
+     */
+    private void recordSearch(long startNanos, String outcome) {
+        meterRegistry.timer("membership.searches", "outcome", outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String outcomeOf(CharacterSnapshot snapshot) {
+        return snapshot.isComplete() ? "complete" : "incomplete";
+    }
+
+    /**
+     * Abandons the searches still running in the background when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        searchExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the store of known alliance histories, e.g. to read how many requests it saved.
+     *
+     * @return the history store
+     */
+    public MembershipHistoryStore getHistoryStore() {
+        return historyStore;
+    }
+
+    /**
+     * Returns the number of background searches that were cancelled before they completed. The requests they
+     * aborted are counted by {@link EveService#getCancelledRequestCount()}.
+     *
+     * @return the number of cancelled searches
+     */
+    public long getCancelledSearchCount() {
+        return cancelledSearches.get();
+    }
+
+    /**
+     * Returns the cache of assembled characters, e.g. to read its hit rate.
+     *
+     * @return the result cache
+     */
+    public CharacterResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Returns the snapshot of a character, served from the result cache if a recent one exists.
+     * Concurrent searches for the same character share a single assembly, and each of them receives its streamed
+     * results, see {@link SearchBroadcast}. Only complete snapshots are cached, so a search that lost lookups to an
+     * ESI outage is retried by the next one.
+     * <p>
+     * Reassembling bypasses only the result cache: the ESI responses it is assembled from are still reused until they
+     * expire, since ESI serves its own cached copy until then and would not return anything newer.
+     *
+     * @param characterId The character to search.
+     * @param reassemble  Whether to bypass the result cache and assemble the character again.
+     * @return The snapshot, whose age tells how old the data is.
+     * @throws IOException          If the character or its corporation history could not be fetched.
+     * @throws InterruptedException If the thread is interrupted while waiting for data.
+     */
+    public CharacterSnapshot getCharacterSnapshot(long characterId, boolean reassemble) throws IOException, InterruptedException {
+        return getCharacterSnapshot(characterId, reassemble, SearchListener.NONE);
+    }
+
+    /**
+     * Searches a character in the background, reporting pending and resolved corporations to the listener as they
+     * come in, so the first rows can be shown one round trip after the search started. Cancelling the returned future
+     * interrupts the search and aborts its outstanding HTTP requests; callers bind it to the lifetime of their UI so
+     * that searches nobody waits for anymore stop spending the ESI budget.
+     *
+     * @param characterId The character to search.
+     * @param reassemble  Whether to bypass the result cache and assemble the character again.
+     * @param listener    Receives the results on the background thread; it must not block.
+     * @return The pending result of the search.
+     */
+    public Future<CharacterSnapshot> searchCharacter(long characterId, boolean reassemble, SearchListener listener) {
+        return searchExecutor.submit(() -> {
+            try {
+                CharacterSnapshot snapshot = getCharacterSnapshot(characterId, reassemble, listener);
+                listener.onComplete(snapshot);
+                return snapshot;
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                if (e instanceof InterruptedException || Thread.currentThread().isInterrupted()) {
+                    cancelledSearches.incrementAndGet();
+                    LOGGER.info("Search cancelled for character ID: " + characterId);
+                }
+                listener.onFailure(e);
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Searches several characters together in the background, e.g. the pilots of a pasted local chat. Names are first
+     * resolved to IDs in bulk, then every character that is not in the result cache is assembled concurrently with
+     * shared lookups: members of the same corporation share one alliance history request, and the names of all
+     * corporations and alliances involved are resolved in one bulk request for the whole batch rather than one per
+     * character, see {@link SharedLookups}. The batch shares a single search deadline.
+     * <p>
+     * Cancelling the returned future interrupts every assembly of the batch.
+     *
+     * @param characterIds   The characters to search by ID.
+     * @param characterNames The characters to search by name.
+     * @param reassemble     Whether to bypass the result cache and assemble every character again.
+     * @param listener       Receives the results on the background threads; it must not block.
+     * @return The pending result of the batch.
+     */
+    public Future<?> searchCharacters(Collection<Long> characterIds, Collection<String> characterNames,
+                                      boolean reassemble, BatchSearchListener listener) {
+        return searchExecutor.submit(() -> {
+            try {
+                Set<Long> ids = new LinkedHashSet<>(characterIds);
+                ids.addAll(resolveCharacterNames(characterNames, listener));
+                searchAll(List.copyOf(ids), reassemble, listener);
+            } catch (InterruptedException e) {
+                cancelledSearches.incrementAndGet();
+                LOGGER.info("Batch search cancelled");
+                throw e;
+            } finally {
+                listener.onDone();
+            }
+            return null;
+        });
+    }
+
+    private List<Long> resolveCharacterNames(Collection<String> names, BatchSearchListener listener) throws InterruptedException {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Long> resolved;
+        try {
+            resolved = eveService.getCharacterIds(names);
+        } catch (IOException e) {
+            LOGGER.warning("Failed to resolve character names: " + e.getMessage());
+            listener.onError("Failed to resolve character names", e.getMessage());
+            return List.of();
+        }
+
+        List<Long> ids = new ArrayList<>();
+        List<String> unknown = new ArrayList<>();
+        for (String name : names) {
+            Long id = resolved.get(name);
+            if (id != null) {
+                ids.add(id);
+            } else {
+                unknown.add(name);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            listener.onUnknownNames(unknown);
+        }
+        return ids;
+    }
+
+    /**
+     * Serves the cached characters of a batch and assembles the others concurrently with shared lookups. Like single
+     * searches, every character is coalesced with concurrent searches for it, so a batch and a single or REST search
+     * for the same pilot share one assembly; a character attached to a search outside the batch gives up its part in
+     * the shared names request right away.
+     */
+    private void searchAll(List<Long> characterIds, boolean reassemble, BatchSearchListener batchListener) throws InterruptedException {
+        Map<Long, SearchListener> pending = new LinkedHashMap<>();
+        for (long characterId : characterIds) {
+            SearchListener listener = batchListener.onCharacter(characterId);
+            long start = System.nanoTime();
+            CharacterSnapshot cached = reassemble ? null : resultCache.get(characterId);
+            if (cached != null) {
+                recordSearch(start, "cached");
+                listener.onComplete(cached);
+            } else {
+                pending.put(characterId, listener);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Assembling " + pending.size() + " of " + characterIds.size() + " characters with shared lookups");
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        long deadline = System.nanoTime() + eveService.getSearchDeadline().toNanos();
+        SharedLookups shared = new SharedLookups(pending.size(), executor, deadline);
+        try {
+            List<Future<?>> assemblies = new ArrayList<>();
+            pending.forEach((characterId, listener) -> assemblies.add(executor.submit(() -> {
+                long start = System.nanoTime();
+                activeSearches.incrementAndGet();
+                try {
+                    SearchBroadcast broadcast = new SearchBroadcast(listener);
+                    CharacterSnapshot snapshot = inFlightSearches.execute(String.valueOf(characterId), CharacterSnapshot.class, broadcast, () -> {
+                        CharacterSnapshot assembled = assembleCharacter(characterId, broadcast, executor, deadline, shared);
+                        resultCache.put(assembled);
+                        return assembled;
+                    }, leader -> {
+                        shared.release(characterId); // Assembled by a concurrent search, do not hold up the batch
+                        leader.attach(listener);
+                    });
+                    recordSearch(start, outcomeOf(snapshot));
+                    listener.onComplete(snapshot);
+                } catch (IOException | InterruptedException | RuntimeException e) {
+                    recordSearch(start, e instanceof InterruptedException ? "cancelled" : "failed");
+                    listener.onFailure(e);
+                } finally {
+                    activeSearches.decrementAndGet();
+                    shared.release(characterId);
+                }
+                return null;
+            })));
+            for (Future<?> assembly : assemblies) {
+                try {
+                    assembly.get();
+                } catch (ExecutionException e) {
+                    // Reported to the listener of the character
+                }
+            }
+        } finally {
+            executor.shutdownNow(); // Abandon outstanding lookups if the batch was cancelled
+        }
+    }
+
+    private CharacterSnapshot getCharacterSnapshot(long characterId, boolean reassemble, SearchListener listener) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        String outcome = "failed";
+        activeSearches.incrementAndGet();
+        try {
+            if (!reassemble) {
+                CharacterSnapshot cached = resultCache.get(characterId);
+                if (cached != null) {
+                    LOGGER.info("Serving character " + characterId + " from the result cache, assembled " + cached.getAssembledAt());
+                    outcome = "cached";
+                    return cached;
+                }
+            }
+            SearchBroadcast broadcast = new SearchBroadcast(listener);
+            CharacterSnapshot snapshot = inFlightSearches.execute(String.valueOf(characterId), CharacterSnapshot.class, broadcast, () -> {
+                CharacterSnapshot assembled = assembleSnapshot(characterId, broadcast);
+                resultCache.put(assembled);
+                return assembled;
+            }, leader -> leader.attach(listener)); // Stream the results of the concurrent search to this one as well
+            outcome = outcomeOf(snapshot);
+            return snapshot;
+        } catch (InterruptedException e) {
+            outcome = "cancelled";
+            throw e;
+        } finally {
+            activeSearches.decrementAndGet();
+            recordSearch(start, outcome);
+        }
+    }
+
     /**
      * Retrieves the full hierarchical data for a character based on the provided character ID.
      * This method processes and combines various pieces of data such as character details,
      * corporation history, and alliance history to construct a comprehensive Character object.
-     * It uses an external EveService instance for all data fetch operations, making the method
-     * flexible in different contexts where different implementations or instances of EveService
-     * might be used.
+     * It uses the EveService for all data fetch operations.
      *
      * @param characterId The unique identifier for the character whose data is to be fetched.
      *                    This ID is used to retrieve character-specific details and histories.
-     * @param eveService  The EveService instance through which all API requests are made.
-     *                    This dependency is passed in to facilitate easier testing and
-     *                    modification of service behavior.
      * @return A fully populated Character object containing all relevant nested data structures
      *         (corporations and alliances included). The character data includes comprehensive details
      *         about the character's corporations and their respective alliances, with specific
@@ -47,87 +398,411 @@ public class CharacterDataService {
      * in the EVE Online universe. Special care is taken to handle non-player corporations and empty
      * alliance records gracefully, skipping these to focus on significant historical records.
      *
-     * Each corporation and alliance is checked against a special 'snowflakes' list to determine if
+     * Each corporation and alliance is checked against the {@link SnowflakeRegistry} to determine if
      * it should be marked as special, which can affect how these entities are displayed or processed
      * in the consuming application.
+     *
+     * All lookups are resolved concurrently on virtual threads, capped by the EveService concurrency limit; the result is
+     * identical to resolving them one after another. Lookups still outstanding when the search deadline of the EveService
+     * has passed are abandoned and reported like failed ones, so a brownout cannot stall a search indefinitely.
+     *
+     * The corporation history is always requested, but the alliance history of a corporation is only requested again
+     * if the character's tenure in it may not be fully covered by the stored copy, see {@link SharedLookups#allianceHistory}. New corporations and alliances are the only names that
+     * are not already cached.
+     *
+     * Recent results are served from the result cache, see {@link #getCharacterSnapshot}.
      */
+    public Character getCharacterData(long characterId) throws IOException, InterruptedException {
+        return getCharacterSnapshot(characterId, false).getCharacter();
+    }
+
+    private CharacterSnapshot assembleSnapshot(long characterId, SearchListener listener) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        long deadline = System.nanoTime() + eveService.getSearchDeadline().toNanos();
+        SharedLookups lookups = new SharedLookups(1, executor, deadline);
+        try {
+            return assembleCharacter(characterId, listener, executor, deadline, lookups);
+        } finally {
+            lookups.release(characterId);
+            executor.shutdownNow(); // Abandon outstanding lookups if the assembly was aborted
+        }
+    }
 
-    public static Character getCharacterData(long characterId, EveService eveService) throws IOException, InterruptedException {
+    /**
+     * Issues every independent lookup for the character at once on the given executor and assembles the results.
+     * The alliance histories of all corporations are requested concurrently. Once they are in, the names of every
+     * corporation and alliance involved are resolved together in one or two bulk requests, see
+     * {@link EveService#getNames}. The amount of requests that actually hit ESI at the same time is capped by the EveService.
+     * <p>
+     * The results are then joined in a single sequential pass over the corporation history, so the order of the
+     * history and the start/end date chaining are exactly the same as with a serial walk. Each corporation only keeps
+     * the alliances the character was actually in during the tenure, see {@link #clipToTenure}.
+     * <p>
+     * The listener is handed a pending row per corporation as soon as the corporation history is in, and every row
+     * as soon as it is assembled.
+     *
+     * @param deadline The {@link System#nanoTime()} after which outstanding lookups are given up.
+     * @param shared   The alliance history and name lookups shared with the other characters of the batch.
+     * @return The assembled character, which is incomplete if any lookup failed.
+     */
+    private CharacterSnapshot assembleCharacter(long characterId, SearchListener listener, ExecutorService executor,
+                                                long deadline, SharedLookups shared) throws IOException, InterruptedException {
         EVE_Character eveCharacter;
         List<CorporationHistory> corpHistories;
         List<Corporation> corporations = new ArrayList<>();
-        CorporationHistory previousCorpHistory = null;
+        boolean complete = true;
+        long now = ComparisonService.now();
 
+        Future<EVE_Character> characterFuture = executor.submit(() -> eveService.getCharacterDetails(characterId));
+        Future<CorporationHistory[]> corpHistoryFuture = executor.submit(() -> eveService.getCorporationHistory(characterId));
         try {
-            eveCharacter = eveService.getCharacterDetails(characterId);
-            corpHistories = List.of(eveService.getCorporationHistory(characterId));
+            eveCharacter = await(characterFuture, deadline);
+            corpHistories = List.of(await(corpHistoryFuture, deadline));
         } catch (IOException | InterruptedException e) {
             LOGGER.severe("Failed to fetch character or corporation history data: " + e.getMessage());
-            ErrorNotificationManager.addErrorMessage("Failed to fetch character or corporation history data: " + e.getMessage());
+            listener.onError("Failed to fetch character or corporation history data", e.getMessage());
             throw e;
         }
 
+        List<CorporationLookup> lookups = new ArrayList<>();
+        List<Corporation> pending = new ArrayList<>();
+        long tenureEnd = EveDates.OPEN_END;
         for (CorporationHistory corpHistory : corpHistories) {
+            long startDate;
+            try {
+                startDate = EveDates.parse(corpHistory.getStart_date());
+            } catch (DateTimeParseException e) {
+                LOGGER.warning("Invalid date in corporation history: " + e.getMessage());
+                listener.onError("Invalid date in corporation history", e.getMessage());
+                complete = false;
+                continue;
+            }
+            long endDate = tenureEnd;
+            tenureEnd = startDate; // Every record ends the previous tenure, even one that is not listed
             if (EveData.isNpcCorporation(corpHistory.getCorporation_id())) {
                 continue;
             }
 
-            String startDate = corpHistory.getStart_date();
-            String endDate = previousCorpHistory != null ? previousCorpHistory.getStart_date() : "now";
+            long corporationId = corpHistory.getCorporation_id();
+            lookups.add(new CorporationLookup(corpHistory, startDate, endDate, shared.allianceHistory(corporationId, endDate)));
+            pending.add(new Corporation(corporationId, null, startDate, endDate, List.of(), snowflakes.isSnowflake(corporationId)));
+        }
+        listener.onCorporations(pending);
 
-            EVE_Corporation eveCorporation;
+        int steps = 2 * lookups.size(); // Every alliance history, then every row
+        int completedSteps = 0;
+        Set<Long> corporationIds = new LinkedHashSet<>();
+        Set<Long> allianceIds = new LinkedHashSet<>();
+        for (CorporationLookup lookup : lookups) {
+            corporationIds.add((long) lookup.history().getCorporation_id());
             try {
-                eveCorporation = eveService.getCorporationDetails(corpHistory.getCorporation_id());
-            } catch (IOException | InterruptedException e) {
+                for (AllianceHistory allianceHistory : await(lookup.allianceHistories(), deadline)) {
+                    if (allianceHistory.getAlliance_id() != 0) {
+                        allianceIds.add((long) allianceHistory.getAlliance_id());
+                    }
+                }
+            } catch (IOException e) {
+                // Reported while assembling the corporation below
+            }
+            listener.onProgress(++completedSteps, steps);
+        }
+        Map<Long, Future<String>> names = resolveNames(characterId, corporationIds, allianceIds, shared, deadline);
+
+        for (int index = 0; index < lookups.size(); index++) {
+            listener.onProgress(completedSteps + index, steps);
+            CorporationLookup lookup = lookups.get(index);
+            CorporationHistory corpHistory = lookup.history();
+
+            long startDate = lookup.startDate();
+            long endDate = lookup.endDate();
+
+            String corporationName;
+            try {
+                corporationName = await(names.get((long) corpHistory.getCorporation_id()), deadline);
+            } catch (IOException e) {
                 LOGGER.warning("Failed to fetch corporation details: " + e.getMessage());
-                ErrorNotificationManager.addErrorMessage("Failed to fetch corporation details: " + e.getMessage());
+                listener.onError("Failed to fetch corporation details", e.getMessage());
+                complete = false;
                 continue; // Skip this corporation and proceed with the next
             }
 
             List<AllianceHistory> allianceHistories;
             try {
-                allianceHistories = List.of(eveService.getAllianceHistory(corpHistory.getCorporation_id()));
-            } catch (IOException | InterruptedException e) {
+                allianceHistories = List.of(await(lookup.allianceHistories(), deadline));
+            } catch (IOException e) {
                 LOGGER.warning("Failed to fetch alliance history: " + e.getMessage());
-                ErrorNotificationManager.addErrorMessage("Failed to fetch alliance history: " + e.getMessage());
+                listener.onError("Failed to fetch alliance history", e.getMessage());
                 allianceHistories = new ArrayList<>(); // Continue with empty list if failed to fetch
+                complete = false;
             }
 
             List<Alliance> alliances = new ArrayList<>();
-            AllianceHistory previousAllianceHistory = null;
+            long previousAllianceStartDate = EveDates.OPEN_END;
             for (AllianceHistory allianceHistory : allianceHistories) {
-                if (allianceHistory.getAlliance_id() == 0) {
+                long allianceStartDate;
+                try {
+                    allianceStartDate = EveDates.parse(allianceHistory.getStart_date());
+                } catch (DateTimeParseException e) {
+                    LOGGER.warning("Invalid date in alliance history: " + e.getMessage());
+                    listener.onError("Invalid date in alliance history", e.getMessage());
+                    complete = false;
                     continue;
                 }
+                long allianceEndDate = previousAllianceStartDate;
+                previousAllianceStartDate = allianceStartDate;
+                if (allianceHistory.getAlliance_id() == 0) {
+                    continue; // The corporation left its alliance, which ends the previous membership
+                }
 
-                String allianceStartDate = allianceHistory.getStart_date();
-                String allianceEndDate = previousAllianceHistory != null ? previousAllianceHistory.getStart_date() : "now";
-
-                EVE_Alliance eveAlliance;
+                String allianceName;
                 try {
-                    eveAlliance = eveService.getAllianceDetails(allianceHistory.getAlliance_id());
-                } catch (IOException | InterruptedException e) {
+                    allianceName = await(names.get((long) allianceHistory.getAlliance_id()), deadline);
+                } catch (IOException e) {
                     LOGGER.warning("Failed to fetch alliance details: " + e.getMessage());
-                    ErrorNotificationManager.addErrorMessage("Failed to fetch alliance details: " + e.getMessage());
+                    listener.onError("Failed to fetch alliance details", e.getMessage());
+                    complete = false;
                     continue; // Skip this alliance and proceed with the next
                 }
 
-                Alliance alliance = new Alliance(allianceHistory.getAlliance_id(), eveAlliance.getName(), allianceStartDate, allianceEndDate);
-                if (EveData.getSnowflakes().containsKey(alliance.getId())) {
-                    alliance.setSpecial(true);
+                long allianceId = allianceHistory.getAlliance_id();
+                alliances.add(new Alliance(allianceId, allianceName, allianceStartDate, allianceEndDate,
+                        snowflakes.isSnowflake(allianceId)));
+            }
+            long corporationId = corpHistory.getCorporation_id();
+            Corporation corporation = new Corporation(corporationId, corporationName, startDate, endDate,
+                    clipToTenure(alliances, startDate, endDate, now),
+                    snowflakes.isSnowflake(corporationId));
+            corporations.add(corporation);
+            listener.onCorporation(index, corporation);
+        }
+        listener.onProgress(steps, steps);
+
+        Character character = new Character(characterId, eveCharacter.getName(), corporations);
+        return new CharacterSnapshot(character, Instant.now(), complete);
+    }
+
+    /**
+     * Joins the alliance timeline of a corporation with the tenure of the character in it, once per assembly, so the
+     * view only has to display the result.
+     *
+     * @param alliances The alliance timeline of the corporation, newest first.
+     * @param start     The start of the tenure.
+     * @param end       The end of the tenure, or {@link EveDates#OPEN_END}.
+     * @param now       The current time of the assembly, see {@link ComparisonService#now()}.
+     * @return The alliances the character was in through the corporation, newest first, with their dates clipped to
+     *         the tenure.
+     */
+    private static List<Alliance> clipToTenure(List<Alliance> alliances, long start, long end, long now) {
+        List<Alliance> clipped = new ArrayList<>();
+        for (Alliance alliance : ComparisonService.overlapping(start, end, alliances, Alliance::startDate, Alliance::endDate, now)) {
+            clipped.add(new Alliance(alliance.id(), alliance.name(), Math.max(alliance.startDate(), start),
+                    Math.min(alliance.endDate(), end), alliance.special()));
+        }
+        return clipped;
+    }
+
+    /**
+     * Resolves the names of the given corporations and alliances with the bulk names request of the batch.
+     * Should the bulk lookup fail, for example because ESI rejects the whole chunk over a single invalid ID,
+     * every name is looked up through its own detail request instead so that a single bad entity does not
+     * take the whole search down with it.
+     *
+     * @return A pending name per requested ID; IDs ESI has no name for complete exceptionally.
+     */
+    private Map<Long, Future<String>> resolveNames(long characterId, Set<Long> corporationIds, Set<Long> allianceIds,
+                                                   SharedLookups shared, long deadline) throws InterruptedException {
+        Map<Long, Future<String>> names = new HashMap<>();
+        List<Long> ids = new ArrayList<>(corporationIds);
+        ids.addAll(allianceIds);
+        try {
+            Map<Long, String> resolved = await(shared.names(characterId, ids), deadline);
+            for (Long id : ids) {
+                String name = resolved.get(id);
+                names.put(id, name != null
+                        ? CompletableFuture.completedFuture(name)
+                        : CompletableFuture.failedFuture(new IOException("ESI returned no name for ID " + id)));
+            }
+        } catch (IOException e) {
+            if (deadline - System.nanoTime() <= 0) {
+                ids.forEach(id -> names.put(id, CompletableFuture.failedFuture(e)));
+                return names;
+            }
+            LOGGER.warning("Bulk name lookup failed, falling back to detail lookups: " + e.getMessage());
+            for (Long id : corporationIds) {
+                names.put(id, shared.detailName(id, () -> eveService.getCorporationDetails(id).getName()));
+            }
+            for (Long id : allianceIds) {
+                names.put(id, shared.detailName(id, () -> eveService.getAllianceDetails(id).getName()));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Waits for a submitted lookup and unwraps its outcome into the exceptions EveService itself would throw.
+     *
+     * @param future The pending lookup.
+     * @param deadline The {@link System#nanoTime()} after which the lookup is given up.
+     * @return The looked up value.
+     * @throws IOException If the lookup failed, or a {@link SearchDeadlineException} if it did not complete before the deadline.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    private static <T> T await(Future<T> future, long deadline) throws IOException, InterruptedException {
+        try {
+            return future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new SearchDeadlineException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Lookup failed: " + cause, cause);
+        } catch (CancellationException e) {
+            throw new IOException("Lookup was cancelled", e);
+        }
+    }
+
+    /**
+     * The lookups shared by the characters assembled together, so that each one is issued once per batch: the
+     * alliance history of every corporation, the bulk names request, and the detail requests it falls back to.
+     * <p>
+     * The bulk names request waits until every character has registered the IDs it needs, see {@link #names}, or has
+     * given up, see {@link #release}; it is then sent once for the union of all IDs. A single search is a batch of one.
+     */
+    private final class SharedLookups {
+        private final ExecutorService executor;
+        private final ConcurrentMap<Long, Future<AllianceHistory[]>> allianceHistories = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Long, Future<String>> detailNames = new ConcurrentHashMap<>();
+        private final Set<Long> registered = ConcurrentHashMap.newKeySet();
+        private final Set<Long> nameIds = ConcurrentHashMap.newKeySet();
+        private final CountDownLatch unregistered;
+        private final Future<Map<Long, String>> names;
+
+        /**
+         * @param characters The number of characters assembled together.
+         * @param deadline   The {@link System#nanoTime()} after which the names are requested even if some
+         *                   characters have not registered yet.
+         */
+        SharedLookups(int characters, ExecutorService executor, long deadline) {
+            this.executor = executor;
+            this.unregistered = new CountDownLatch(characters);
+            this.names = executor.submit(() -> {
+                if (!unregistered.await(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+                    LOGGER.warning("Not every character of the batch registered its names before the deadline");
+                }
+                return eveService.getNames(List.copyOf(nameIds));
+            });
+        }
+
+        /**
+         * Returns the alliance history of a corporation a character was a member of. The stored history is reused
+         * without asking ESI if it was refreshed after the character's tenure ended, since alliance histories only grow
+         * and any later record cannot overlap the tenure. Otherwise the history is refreshed, once per batch, and the
+         * refreshed history covers every tenure.
+         *
+         * @param corporationId The corporation whose alliance history is needed.
+         * @param tenureEnd     The end of the character's tenure, or {@link EveDates#OPEN_END} if the character is
+         *                      still a member.
+         */
+        Future<AllianceHistory[]> allianceHistory(long corporationId, long tenureEnd) {
+            if (tenureEnd != EveDates.OPEN_END) {
+                AllianceHistory[] stored = historyStore.getAllianceHistoryCovering(corporationId, TimeUnit.SECONDS.toMillis(tenureEnd));
+                if (stored != null) {
+                    return CompletableFuture.completedFuture(stored);
                 }
-                alliances.add(alliance);
-                previousAllianceHistory = allianceHistory;
             }
-            Corporation corporation = new Corporation(corpHistory.getCorporation_id(), eveCorporation.getName(), startDate, endDate, alliances);
-            if (EveData.getSnowflakes().containsKey(corporation.getId())) {
-                corporation.setSpecial(true);
+            return allianceHistories.computeIfAbsent(corporationId, id -> executor.submit(() -> {
+                EveService.Fetched<AllianceHistory[]> fetched = eveService.fetchAllianceHistory(id);
+                return historyStore.putAllianceHistory(id, fetched.value(), fetched.fetchedAt());
+            }));
+        }
+
+        /**
+         * Registers the IDs a character needs the names of. A character that was released before registering, see
+         * {@link #release}, has its names requested on their own.
+         *
+         * @return The names of the whole batch, requested once every character has registered.
+         */
+        Future<Map<Long, String>> names(long characterId, Collection<Long> ids) {
+            if (registered.add(characterId)) {
+                nameIds.addAll(ids);
+                unregistered.countDown();
+                return names;
             }
-            corporations.add(corporation);
-            previousCorpHistory = corpHistory;
+            // Released before, e.g. while attached to a search that was then cancelled: the batch request may be gone
+            return ids.isEmpty() ? names : executor.submit(() -> eveService.getNames(List.copyOf(ids)));
+        }
+
+        /**
+         * Gives up on the names for a character that failed before it registered, so the others do not wait for it.
+         * Does nothing if the character has already registered.
+         */
+        void release(long characterId) {
+            names(characterId, List.of());
+        }
+
+        Future<String> detailName(long id, Callable<String> lookup) {
+            return detailNames.computeIfAbsent(id, key -> executor.submit(lookup));
         }
+    }
 
-        return new Character(characterId, eveCharacter.getName(), corporations);
+    /**
+     * The pending lookups issued for a single corporation history record, with the tenure it covers. The tenure ends
+     * where the next newer record of the corporation history starts, or at {@link EveDates#OPEN_END}.
+     */
+    private record CorporationLookup(CorporationHistory history, long startDate, long endDate,
+                                     Future<AllianceHistory[]> allianceHistories) {
     }
 
+    /**
+     * Forwards the streamed results of an assembly to the listener of the search performing it and to the listeners
+     * of every search that attached to it. A listener attaching late is first replayed what it missed: the pending
+     * rows, every row resolved and error reported so far, and the latest progress. Completion and failure are not
+     * forwarded, since every search reports its own outcome.
+     */
+    private static final class SearchBroadcast implements SearchListener {
+        private final List<SearchListener> listeners = new ArrayList<>();
+        private final List<Consumer<SearchListener>> history = new ArrayList<>();
+        private Consumer<SearchListener> progress;
+
+        SearchBroadcast(SearchListener listener) {
+            listeners.add(listener);
+        }
+
+        synchronized void attach(SearchListener listener) {
+            history.forEach(event -> event.accept(listener));
+            if (progress != null) {
+                progress.accept(listener);
+            }
+            listeners.add(listener);
+        }
+
+        private synchronized void publish(Consumer<SearchListener> event) {
+            history.add(event);
+            listeners.forEach(event);
+        }
+
+        @Override
+        public void onCorporations(List<Corporation> corporations) {
+            publish(listener -> listener.onCorporations(corporations));
+        }
+
+        @Override
+        public void onCorporation(int index, Corporation corporation) {
+            publish(listener -> listener.onCorporation(index, corporation));
+        }
+
+        @Override
+        public void onError(String summary, String detail) {
+            publish(listener -> listener.onError(summary, detail));
+        }
+
+        @Override
+        public synchronized void onProgress(int completed, int total) {
+            progress = listener -> listener.onProgress(completed, total);
+            listeners.forEach(progress);
+        }
+    }
 }
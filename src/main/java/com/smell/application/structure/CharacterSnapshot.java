@@ -0,0 +1,59 @@
+package com.smell.application.structure;
+
+import com.smell.application.user.Character;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * An assembled character together with the time it was assembled. Snapshots are shared between every session that
+ * searches the same character, so the character and its corporation and alliance lists must be treated as read-only.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public final class CharacterSnapshot {
+
+    private final Character character;
+    private final Instant assembledAt;
+    private final boolean complete;
+
+    /**
+     * @param character   The assembled character.
+     * @param assembledAt The time the assembly finished.
+     * @param complete    Whether every lookup of the assembly succeeded.
+     */
+    public CharacterSnapshot(Character character, Instant assembledAt, boolean complete) {
+        this.character = character;
+        this.assembledAt = assembledAt;
+        this.complete = complete;
+    }
+
+    public Character getCharacter() {
+        return character;
+    }
+
+    public Instant getAssembledAt() {
+        return assembledAt;
+    }
+
+    /**
+     * Returns whether the snapshot is complete. Incomplete snapshots lack corporations, alliances or names that
+     * could not be fetched and are never cached.
+     *
+     * @return true if every lookup of the assembly succeeded
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Returns how old the data of the snapshot is.
+     *
+     * @return the time passed since the snapshot was assembled
+     */
+    public Duration getAge() {
+        return Duration.between(assembledAt, Instant.now());
+    }
+}
@@ -1,10 +1,15 @@
 package com.smell.application.structure;
 
+import com.smell.application.user.EveDates;
+
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.ToLongFunction;
 import java.util.logging.Logger;
 
 /**
@@ -12,6 +17,10 @@ import java.util.logging.Logger;
  * This service is used to determine whether two given time periods overlap using precise date-time parsing.
  * It supports handling 'now' as a dynamic reference to the current time in UTC for comparisons.
  *
+ * Periods are best compared as epoch seconds, see {@link EveDates}: the long variants need no parsing and do not
+ * allocate. An open end is resolved against a "now" taken once per request with {@link #now()}, so every comparison of
+ * a request agrees on the current time.
+ *
  * The service logs detailed information about parsing errors and operational steps to facilitate debugging and ensure reliable operations.
  *
  * @author FlynnDynamics
@@ -32,7 +41,10 @@ public class ComparisonService {
      * @param endB The end datetime of the second period.
      * @return true if the periods overlap, false otherwise.
      * @throws DateTimeParseException if any datetime string cannot be parsed correctly, indicating a potential input error.
+     * @deprecated Parses all four dates and reads the clock on every call; parse the dates once with
+     * {@link EveDates#parse} and use {@link #isTimeWithinRange(long, long, long, long, long)} instead.
      */
+    @Deprecated
     public static boolean isTimeWithinRange(String startA, String endA, String startB, String endB) {
         DateTimeFormatter formatter = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 
@@ -55,6 +67,64 @@ public class ComparisonService {
         return !startADate.isAfter(endBDate) && !endADate.isBefore(startBDate);
     }
 
+    /**
+     * Returns the current time as epoch seconds, to be taken once per request and passed to the comparisons of that
+     * request.
+     *
+     * @return The current time as epoch seconds.
+     */
+    public static long now() {
+        return Instant.now().getEpochSecond();
+    }
+
+    /**
+     * Determines whether two time periods given as epoch seconds overlap. An open end
+     * ({@link EveDates#OPEN_END}) is taken to be the given "now".
+     *
+     * @param startA The start of the first period.
+     * @param endA The end of the first period, or {@link EveDates#OPEN_END}.
+     * @param startB The start of the second period.
+     * @param endB The end of the second period, or {@link EveDates#OPEN_END}.
+     * @param now The current time of the request as epoch seconds, see {@link #now()}.
+     * @return true if the periods overlap, false otherwise.
+     */
+    public static boolean isTimeWithinRange(long startA, long endA, long startB, long endB, long now) {
+        return startA <= resolveEnd(endB, now) && resolveEnd(endA, now) >= startB;
+    }
+
+    /**
+     * Returns the part of a timeline that overlaps a period, e.g. the alliances of a corporation during the tenure of
+     * a character. The timeline must be sorted newest first without overlaps, the way membership histories are
+     * assembled from ESI; the overlapping entries then form a contiguous run, which is found in a single sweep that
+     * stops at the first entry ending before the period.
+     *
+     * @param start The start of the period.
+     * @param end The end of the period, or {@link EveDates#OPEN_END}.
+     * @param timeline The timeline, newest first.
+     * @param startOf The start of a timeline entry.
+     * @param endOf The end of a timeline entry, or {@link EveDates#OPEN_END}.
+     * @param now The current time of the request as epoch seconds, see {@link #now()}.
+     * @return A view of the overlapping entries, newest first.
+     */
+    public static <T> List<T> overlapping(long start, long end, List<T> timeline,
+                                          ToLongFunction<T> startOf, ToLongFunction<T> endOf, long now) {
+        long resolvedEnd = resolveEnd(end, now);
+        int size = timeline.size();
+        int from = 0;
+        while (from < size && startOf.applyAsLong(timeline.get(from)) > resolvedEnd) {
+            from++;
+        }
+        int to = from;
+        while (to < size && resolveEnd(endOf.applyAsLong(timeline.get(to)), now) >= start) {
+            to++;
+        }
+        return timeline.subList(from, to);
+    }
+
+    private static long resolveEnd(long end, long now) {
+        return end == EveDates.OPEN_END ? now : end;
+    }
+
     /**
      * Parses a datetime string into a LocalDateTime object.
      * Handles the special case where 'now' is provided, returning the current datetime in UTC.
@@ -1,48 +1,143 @@
 package com.smell.application.structure;
 
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.notification.Notification.Position;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
 
 /**
- * A utility class to manage and display error notifications.
- * *
+ * Collects the errors of a UI and displays them as notifications.
+ * <p>
+ * Every UI has its own manager, see {@link #get(UI)}, so users only ever see the errors of their own searches.
+ * Errors are recorded in a lock-free ring buffer of fixed capacity: they can be added from any thread, and once the
+ * buffer is full the oldest ones are overwritten, so memory stays bounded even if the errors are never shown.
+ * When they are shown, identical errors are merged into a single notification with a count, e.g.
+ * "37× Failed to fetch alliance details", followed by their distinct details, and only a limited number of
+ * notifications is opened at once.
  *
  * @author FlynnDynamics
  * @version ${version}
  * @since 24/04/24
  */
 public class ErrorNotificationManager {
-    private static final List<String> messages = new ArrayList<>();
+    private static final int CAPACITY = 128;
+    private static final int MAX_NOTIFICATIONS = 5;
+    private static final int MAX_DETAILS = 3;
+
+    private final AtomicReferenceArray<ErrorEvent> events = new AtomicReferenceArray<>(CAPACITY);
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    /**
+     * Returns the manager of the given UI, creating it on first use. Must be called while holding the session lock,
+     * e.g. from a UI listener or {@link UI#access}.
+     *
+     * @param ui The UI whose errors are managed.
+     * @return The manager of the UI.
+     */
+    public static ErrorNotificationManager get(UI ui) {
+        ErrorNotificationManager manager = ComponentUtil.getData(ui, ErrorNotificationManager.class);
+        if (manager == null) {
+            manager = new ErrorNotificationManager();
+            ComponentUtil.setData(ui, ErrorNotificationManager.class, manager);
+        }
+        return manager;
+    }
 
     /**
-     * Adds an error message to the list of messages to be displayed.
+     * Adds an error to be displayed. Safe to call from any thread.
      *
-     * @param message The error message to add.
+     * @param summary What failed; errors with the same summary are displayed together.
+     * @param detail  The cause of this occurrence, or null.
+     */
+    public void addError(String summary, String detail) {
+        long sequence = tail.getAndIncrement();
+        events.set((int) (sequence % CAPACITY), new ErrorEvent(sequence, summary, detail));
+    }
+
+    /**
+     * Displays the errors added since the last call as notifications, merging identical ones, and clears them.
+     * Must be called while holding the session lock.
      */
-    public static void addErrorMessage(String message) {
+    public void showAndClearMessages() {
+        long end = tail.get();
+        if (end == head) {
+            return;
+        }
 
-        if (message.isEmpty()) {
-            messages.add("Errors have occurred which may affect the integrity and informative value of the data collected.");
-            messages.add("The following errors have occurred:");
-            messages.add("#################################");
+        long start = Math.max(head, end - CAPACITY);
+        long lost = start - head;
+        Map<String, ErrorGroup> groups = new LinkedHashMap<>();
+        long sequence = start;
+        for (; sequence < end; sequence++) {
+            ErrorEvent event = events.get((int) (sequence % CAPACITY));
+            if (event == null || event.sequence() < sequence) {
+                break; // Reserved but not written yet; shown by the next call
+            }
+            if (event.sequence() > sequence) {
+                lost++; // Overwritten by a newer error
+                continue;
+            }
+            groups.computeIfAbsent(event.summary(), summary -> new ErrorGroup()).add(event.detail());
         }
+        head = sequence;
 
-        messages.add(message);
+        int shown = 0;
+        int hidden = 0;
+        for (Map.Entry<String, ErrorGroup> group : groups.entrySet()) {
+            if (shown == MAX_NOTIFICATIONS) {
+                hidden += group.getValue().count;
+                continue;
+            }
+            open(format(group.getKey(), group.getValue()));
+            shown++;
+        }
+        if (hidden + lost > 0) {
+            open((hidden + lost) + " more errors occurred, see the server log for details.");
+        }
+    }
+
+    private static String format(String summary, ErrorGroup group) {
+        String message = group.count > 1 ? group.count + "× " + summary : summary;
+        if (group.details.isEmpty()) {
+            return message;
+        }
+        String details = group.details.stream().limit(MAX_DETAILS).collect(Collectors.joining("; "));
+        int more = group.details.size() - MAX_DETAILS;
+        return message + ": " + details + (more > 0 ? " and " + more + " more" : "");
+    }
+
+    private static void open(String message) {
+        Notification notification = new Notification(message, 5000, Position.BOTTOM_START);
+        notification.open();
+    }
+
+    /**
+     * An error as recorded in the ring buffer; the sequence tells whether a slot still holds the expected error.
+     */
+    private record ErrorEvent(long sequence, String summary, String detail) {
     }
 
     /**
-     * Displays all accumulated error messages as notifications and clears the list.
+     * Identical errors merged for display, with their distinct details in order of occurrence.
      */
-    public static void showAndClearMessages() {
-        if (!messages.isEmpty()) {
-            messages.forEach(msg -> {
-                Notification notification = new Notification(msg, 5000, Position.BOTTOM_START);
-                notification.open();
-            });
-            messages.clear();
+    private static final class ErrorGroup {
+        private final Set<String> details = new LinkedHashSet<>();
+        private int count;
+
+        private void add(String detail) {
+            count++;
+            if (detail != null) {
+                details.add(detail);
+            }
         }
     }
 }
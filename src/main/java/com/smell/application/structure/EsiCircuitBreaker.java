@@ -0,0 +1,233 @@
+package com.smell.application.structure;
+
+import java.net.http.HttpHeaders;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Protects the ESI error budget of the application. ESI allows a limited number of error responses per window and
+ * bans clients that exceed it; the remaining budget and the seconds until the window resets are reported on every
+ * response in the {@code X-ESI-Error-Limit-Remain} and {@code X-ESI-Error-Limit-Reset} headers.
+ * <p>
+ * The breaker tracks those headers and reacts before the budget runs out:
+ * <ul>
+ *     <li>below the slowdown threshold, requests are spaced out so the remaining budget is spread over the rest of the window;
+ *     send slots are reserved from a shared schedule, so concurrent callers do not fire together,</li>
+ *     <li>below the pause threshold, or after a 420 "error limited" response, the breaker opens until the window resets,</li>
+ *     <li>after a number of consecutive server errors or connection failures, the breaker opens for a cool-down period.</li>
+ * </ul>
+ * While the breaker is open, requests fail fast with an {@link EsiUnavailableException} instead of being sent.
+ * Once the open period is over the breaker is half-open: the first request is let through as a probe and every other
+ * request is rejected until the probe is answered. If the probe succeeds the breaker closes, if it fails the breaker
+ * reopens right away.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public class EsiCircuitBreaker {
+    private static final Logger LOGGER = Logger.getLogger(EsiCircuitBreaker.class.getName());
+
+    private static final String ERROR_LIMIT_REMAIN = "X-ESI-Error-Limit-Remain";
+    private static final String ERROR_LIMIT_RESET = "X-ESI-Error-Limit-Reset";
+    private static final long DEFAULT_WINDOW_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    private static final long PROBE_RETRY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private final int slowdownThreshold;
+    private final int pauseThreshold;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private volatile int errorLimitRemain = Integer.MAX_VALUE;
+    private volatile long errorLimitResetAt;
+    private volatile long openUntil;
+    private volatile State state = State.CLOSED;
+    private Thread probe;
+    private long nextSendAt;
+    private int consecutiveFailures;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong opened = new AtomicLong();
+
+    /**
+     * @param slowdownThreshold Remaining error budget below which requests are spread out.
+     * @param pauseThreshold    Remaining error budget below which no requests are sent until the window resets.
+     * @param failureThreshold  Number of consecutive failures that opens the breaker.
+     * @param openMillis        How long the breaker stays open after consecutive failures.
+     */
+    public EsiCircuitBreaker(int slowdownThreshold, int pauseThreshold, int failureThreshold, long openMillis) {
+        this.slowdownThreshold = slowdownThreshold;
+        this.pauseThreshold = pauseThreshold;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Called before a request is sent. Fails fast while the breaker is open or a half-open probe is outstanding, and
+     * otherwise waits for the next send slot as long as needed to keep within the remaining error budget.
+     * The caller must report the outcome with {@link #onResponse}, {@link #onFailure} or {@link #onCancelled}.
+     *
+     * @throws EsiUnavailableException If the breaker is open.
+     * @throws InterruptedException    If the thread is interrupted while waiting.
+     */
+    public void beforeRequest() throws EsiUnavailableException, InterruptedException {
+        long waitMillis;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (state == State.OPEN && now < openUntil) {
+                rejected.incrementAndGet();
+                throw new EsiUnavailableException("ESI requests are paused for another " + TimeUnit.MILLISECONDS.toSeconds(openUntil - now + 999)
+                        + "s to protect the ESI error limit", openUntil - now);
+            }
+            if (state == State.OPEN) {
+                state = State.HALF_OPEN;
+                probe = null;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probe != null) {
+                    rejected.incrementAndGet();
+                    throw new EsiUnavailableException("ESI requests are paused until a probe request succeeds", PROBE_RETRY_MILLIS);
+                }
+                probe = Thread.currentThread();
+                LOGGER.info("Sending a probe request to ESI");
+            }
+
+            waitMillis = 0;
+            int remain = errorLimitRemain;
+            long resetAt = errorLimitResetAt;
+            if (remain < slowdownThreshold && now < resetAt) {
+                long slot = Math.max(now, nextSendAt);
+                nextSendAt = slot + (resetAt - now) / Math.max(remain, 1);
+                waitMillis = slot - now;
+            }
+        }
+        if (waitMillis > 0) {
+            try {
+                Thread.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                onCancelled();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Called when a request that passed {@link #beforeRequest} was abandoned before ESI answered, so a half-open
+     * breaker lets the next request probe instead.
+     */
+    public synchronized void onCancelled() {
+        if (state == State.HALF_OPEN && probe == Thread.currentThread()) {
+            probe = null;
+        }
+    }
+
+    /**
+     * Called with every response ESI sent, successful or not.
+     *
+     * @param statusCode The HTTP status of the response.
+     * @param headers    The response headers.
+     */
+    public void onResponse(int statusCode, HttpHeaders headers) {
+        long now = System.currentTimeMillis();
+        Integer remain = parseHeader(headers, ERROR_LIMIT_REMAIN);
+        Integer reset = parseHeader(headers, ERROR_LIMIT_RESET);
+        if (reset != null) {
+            errorLimitResetAt = now + TimeUnit.SECONDS.toMillis(reset);
+        }
+        if (remain != null) {
+            errorLimitRemain = remain;
+        }
+
+        long windowReset = reset != null ? errorLimitResetAt : now + DEFAULT_WINDOW_MILLIS;
+        if (statusCode == 420) {
+            open(windowReset, "ESI reported the error limit as reached");
+        } else if (remain != null && remain < pauseThreshold) {
+            open(windowReset, "ESI error budget down to " + remain);
+        }
+
+        if (statusCode >= 500) {
+            onFailure();
+        } else {
+            synchronized (this) {
+                consecutiveFailures = 0;
+                if (state == State.HALF_OPEN && probe == Thread.currentThread()) {
+                    state = State.CLOSED;
+                    probe = null;
+                    LOGGER.info("Probe request succeeded, resuming ESI requests");
+                }
+            }
+        }
+    }
+
+    private static Integer parseHeader(HttpHeaders headers, String name) {
+        String value = headers.firstValue(name).orElse(null);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Ignoring malformed " + name + " header: " + value);
+            return null;
+        }
+    }
+
+    /**
+     * Called when a request failed without a response, e.g. because the connection was reset or timed out, and for
+     * every server error. A failed half-open probe reopens the breaker right away.
+     */
+    public void onFailure() {
+        String reason = null;
+        synchronized (this) {
+            if (state == State.HALF_OPEN && probe == Thread.currentThread()) {
+                reason = "probe request failed";
+            } else if (++consecutiveFailures >= failureThreshold) {
+                reason = failureThreshold + " consecutive ESI failures";
+            }
+            if (reason != null) {
+                consecutiveFailures = 0;
+                open(System.currentTimeMillis() + openMillis, reason);
+            }
+        }
+    }
+
+    private synchronized void open(long until, String reason) {
+        if (state != State.OPEN || until > openUntil) {
+            state = State.OPEN;
+            openUntil = until;
+            probe = null;
+            opened.incrementAndGet();
+            LOGGER.warning("Pausing ESI requests for " + TimeUnit.MILLISECONDS.toSeconds(until - System.currentTimeMillis()) + "s: " + reason);
+        }
+    }
+
+    /**
+     * @return whether requests are currently rejected, i.e. the breaker is open or waiting for a half-open probe
+     */
+    public boolean isOpen() {
+        return state != State.CLOSED;
+    }
+
+    /**
+     * @return the remaining ESI error budget as last reported, or {@link Integer#MAX_VALUE} if ESI did not report one yet
+     */
+    public int getErrorLimitRemain() {
+        return errorLimitRemain;
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getOpenedCount() {
+        return opened.get();
+    }
+
+    /**
+     * CLOSED lets every request through, OPEN rejects them until {@code openUntil}, HALF_OPEN lets a single probe through.
+     */
+    private enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
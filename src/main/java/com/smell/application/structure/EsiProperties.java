@@ -0,0 +1,316 @@
+package com.smell.application.structure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the ESI client, bound from the {@code esi.*} application properties.
+ * Every value has a sensible default, so the application runs without any of them being set.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+@ConfigurationProperties(prefix = "esi")
+public class EsiProperties {
+
+    /**
+     * Maximum number of ESI requests in flight at the same time.
+     */
+    private int maxConcurrentRequests = 20;
+
+    /**
+     * Maximum number of parsed responses held in memory.
+     */
+    private int cacheMaxEntries = 50_000;
+
+    /**
+     * Timeout for establishing a connection to ESI.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Timeout for a single request, measured until the response headers arrive.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Number of platform threads the HTTP client uses; 0 uses a virtual thread per task.
+     */
+    private int executorThreads = 0;
+
+    /**
+     * How long a shutdown waits for outstanding requests before aborting them.
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Sustained number of requests per second sent to ESI by the whole application.
+     */
+    private double rateLimit = 100;
+
+    /**
+     * Number of requests that may be sent in a burst above the sustained rate.
+     */
+    private int rateLimitBurst = 50;
+
+    /**
+     * Remaining ESI error budget below which requests are spread out over the rest of the error window.
+     */
+    private int errorLimitSlowdownThreshold = 30;
+
+    /**
+     * Remaining ESI error budget below which all requests are paused until the error window resets.
+     */
+    private int errorLimitPauseThreshold = 10;
+
+    /**
+     * Number of consecutive server errors or connection failures that pauses all requests.
+     */
+    private int circuitBreakerFailureThreshold = 5;
+
+    /**
+     * How long requests are paused after consecutive failures.
+     */
+    private Duration circuitBreakerOpenDuration = Duration.ofSeconds(30);
+
+    /**
+     * Total number of attempts for a request failing with a transient error; 1 disables retries.
+     */
+    private int retryMaxAttempts = 3;
+
+    /**
+     * Upper bound of the randomized delay before the first retry; it doubles with every further attempt.
+     */
+    private Duration retryBaseDelay = Duration.ofMillis(250);
+
+    /**
+     * Upper bound of the randomized delay before any retry.
+     */
+    private Duration retryMaxDelay = Duration.ofSeconds(4);
+
+    /**
+     * How long a complete search may take; lookups still outstanding afterwards are given up.
+     */
+    private Duration searchDeadline = Duration.ofSeconds(30);
+
+    /**
+     * Whether responses are also persisted to disk, so the cache survives restarts.
+     */
+    private boolean diskCacheEnabled = true;
+
+    /**
+     * Directory of the persistent response cache.
+     */
+    private String diskCacheDirectory = System.getProperty("user.home") + "/.slp2/esi-cache";
+
+    /**
+     * How long a persisted response is kept after it expired; until then it can still be revalidated with its ETag.
+     */
+    private Duration diskCacheRetention = Duration.ofDays(7);
+
+    /**
+     * How often the persistent cache file is checked for compaction.
+     */
+    private Duration diskCacheCompactionInterval = Duration.ofMinutes(10);
+
+    /**
+     * Number of corporation alliance histories remembered for reuse across searches.
+     */
+    private int historyStoreMaxEntries = 20_000;
+
+    /**
+     * Number of assembled characters kept for repeated searches.
+     */
+    private int resultCacheMaxEntries = 1_000;
+
+    /**
+     * How long an assembled character is served to repeated searches before it is assembled again.
+     */
+    private Duration resultCacheTtl = Duration.ofMinutes(5);
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public int getExecutorThreads() {
+        return executorThreads;
+    }
+
+    public void setExecutorThreads(int executorThreads) {
+        this.executorThreads = executorThreads;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public double getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(double rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    public void setRateLimitBurst(int rateLimitBurst) {
+        this.rateLimitBurst = rateLimitBurst;
+    }
+
+    public int getErrorLimitSlowdownThreshold() {
+        return errorLimitSlowdownThreshold;
+    }
+
+    public void setErrorLimitSlowdownThreshold(int errorLimitSlowdownThreshold) {
+        this.errorLimitSlowdownThreshold = errorLimitSlowdownThreshold;
+    }
+
+    public int getErrorLimitPauseThreshold() {
+        return errorLimitPauseThreshold;
+    }
+
+    public void setErrorLimitPauseThreshold(int errorLimitPauseThreshold) {
+        this.errorLimitPauseThreshold = errorLimitPauseThreshold;
+    }
+
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    public void setCircuitBreakerFailureThreshold(int circuitBreakerFailureThreshold) {
+        this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+    }
+
+    public Duration getCircuitBreakerOpenDuration() {
+        return circuitBreakerOpenDuration;
+    }
+
+    public void setCircuitBreakerOpenDuration(Duration circuitBreakerOpenDuration) {
+        this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+    }
+
+    public int getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+
+    public void setRetryMaxAttempts(int retryMaxAttempts) {
+        this.retryMaxAttempts = retryMaxAttempts;
+    }
+
+    public Duration getRetryBaseDelay() {
+        return retryBaseDelay;
+    }
+
+    public void setRetryBaseDelay(Duration retryBaseDelay) {
+        this.retryBaseDelay = retryBaseDelay;
+    }
+
+    public Duration getRetryMaxDelay() {
+        return retryMaxDelay;
+    }
+
+    public void setRetryMaxDelay(Duration retryMaxDelay) {
+        this.retryMaxDelay = retryMaxDelay;
+    }
+
+    public Duration getSearchDeadline() {
+        return searchDeadline;
+    }
+
+    public void setSearchDeadline(Duration searchDeadline) {
+        this.searchDeadline = searchDeadline;
+    }
+
+    public boolean isDiskCacheEnabled() {
+        return diskCacheEnabled;
+    }
+
+    public void setDiskCacheEnabled(boolean diskCacheEnabled) {
+        this.diskCacheEnabled = diskCacheEnabled;
+    }
+
+    public String getDiskCacheDirectory() {
+        return diskCacheDirectory;
+    }
+
+    public void setDiskCacheDirectory(String diskCacheDirectory) {
+        this.diskCacheDirectory = diskCacheDirectory;
+    }
+
+    public Duration getDiskCacheRetention() {
+        return diskCacheRetention;
+    }
+
+    public void setDiskCacheRetention(Duration diskCacheRetention) {
+        this.diskCacheRetention = diskCacheRetention;
+    }
+
+    public Duration getDiskCacheCompactionInterval() {
+        return diskCacheCompactionInterval;
+    }
+
+    public void setDiskCacheCompactionInterval(Duration diskCacheCompactionInterval) {
+        this.diskCacheCompactionInterval = diskCacheCompactionInterval;
+    }
+
+    public int getHistoryStoreMaxEntries() {
+        return historyStoreMaxEntries;
+    }
+
+    public void setHistoryStoreMaxEntries(int historyStoreMaxEntries) {
+        this.historyStoreMaxEntries = historyStoreMaxEntries;
+    }
+
+    public int getResultCacheMaxEntries() {
+        return resultCacheMaxEntries;
+    }
+
+    public void setResultCacheMaxEntries(int resultCacheMaxEntries) {
+        this.resultCacheMaxEntries = resultCacheMaxEntries;
+    }
+
+    public Duration getResultCacheTtl() {
+        return resultCacheTtl;
+    }
+
+    public void setResultCacheTtl(Duration resultCacheTtl) {
+        this.resultCacheTtl = resultCacheTtl;
+    }
+}
@@ -0,0 +1,24 @@
+package com.smell.application.structure;
+
+import java.io.IOException;
+
+/**
+ * Signals that ESI answered a request with an unexpected HTTP status.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public class EsiResponseException extends IOException {
+
+    private final int statusCode;
+
+    public EsiResponseException(int statusCode) {
+        super("Unexpected HTTP response: " + statusCode);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
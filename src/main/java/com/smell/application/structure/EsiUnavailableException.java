@@ -0,0 +1,30 @@
+package com.smell.application.structure;
+
+import java.io.IOException;
+
+/**
+ * Signals that a request was not sent to ESI because the client is currently holding back traffic,
+ * either because the ESI error budget is nearly exhausted or because ESI kept failing.
+ * Requests rejected this way cost nothing against the error budget and should not be retried before
+ * {@link #getRetryAfterMillis()} has passed.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public class EsiUnavailableException extends IOException {
+
+    private final long retryAfterMillis;
+
+    public EsiUnavailableException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return how long, in milliseconds, the client will keep rejecting requests
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
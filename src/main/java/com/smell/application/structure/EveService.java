@@ -1,15 +1,45 @@
 package com.smell.application.structure;
 
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.smell.application.obj.*;
+import com.smell.application.structure.cache.EsiDiskCache;
+import com.smell.application.structure.cache.EsiResponseCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Provides access to the EVE Online API to retrieve data related to characters, corporations, and alliances.
@@ -18,19 +48,245 @@ import java.util.logging.Logger;
  * Each method in this class is designed to fetch specific types of data by making HTTP GET requests to the EVE Online API,
  * and parsing the resulting JSON into predefined data structures.
  *
+ * The service is a Spring singleton shared by every session: it owns the one HTTP client of the application,
+ * and its response cache serves repeated lookups of the same entity from memory for as long as ESI declares
+ * them fresh. Objects returned by this service may therefore be shared between callers and must not be modified.
+ * The client is configured through {@link EsiProperties}.
+ *
  * @author FlynnDynamics
  * @version ${version}
  * @since 24/04/24
  */
+@Service
 public class EveService {
     private static final Logger LOGGER = Logger.getLogger(EveService.class.getName());
 
+    /**
+     * Maximum number of IDs ESI accepts in a single /universe/names request.
+     */
+    public static final int NAMES_CHUNK_SIZE = 1000;
+
+    /**
+     * Maximum number of names ESI accepts in a single /universe/ids request.
+     */
+    public static final int IDS_CHUNK_SIZE = 500;
+
+    /**
+     * How long a name resolved through /universe/names is cached. The endpoint sends no caching headers,
+     * and corporation and alliance names practically never change.
+     */
+    private static final Duration NAME_CACHE_TTL = Duration.ofHours(24);
+
+    private static final String NAMES_URL = "https://esi.evetech.net/latest/universe/names/";
+    private static final String IDS_URL = "https://esi.evetech.net/latest/universe/ids/";
+
     private final HttpClient client;
+    private final ExecutorService clientExecutor;
     private final Gson gson;
+    private final Semaphore requestPermits;
+    private final Duration requestTimeout;
+    private final Duration shutdownTimeout;
+    private final EsiResponseCache responseCache;
+    private final EsiDiskCache diskCache;
+    private final RequestCoalescer inFlightRequests = new RequestCoalescer();
+    private final TokenBucket rateLimiter;
+    private final EsiCircuitBreaker circuitBreaker;
+    private final RetryPolicy retryPolicy;
+    private final Duration searchDeadline;
+    private final AtomicLong cancelledRequests = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Creates the service together with its HTTP client. HTTP/2 is preferred and the client falls back to
+     * HTTP/1.1 where ESI does not offer it. Excess concurrent requests wait for a free permit, so callers may
+     * fan out lookups on as many threads as they like.
+     *
+     * @param properties    The ESI client configuration
+     * @param meterRegistry The registry the request metrics are published to, see {@link #registerMetrics}
+     */
+    public EveService(EsiProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getMaxConcurrentRequests() < 1) {
+            throw new IllegalArgumentException("esi.max-concurrent-requests must be at least 1: " + properties.getMaxConcurrentRequests());
+        }
+        this.clientExecutor = properties.getExecutorThreads() > 0
+                ? Executors.newFixedThreadPool(properties.getExecutorThreads(), Thread.ofPlatform().name("esi-http-", 0).daemon().factory())
+                : Executors.newVirtualThreadPerTaskExecutor();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(clientExecutor)
+                .build();
+        this.gson = EsiTypeAdapters.register(new GsonBuilder()).create();
+        this.requestPermits = new Semaphore(properties.getMaxConcurrentRequests(), true);
+        this.requestTimeout = properties.getRequestTimeout();
+        this.shutdownTimeout = properties.getShutdownTimeout();
+        this.diskCache = openDiskCache(properties, gson);
+        this.responseCache = new EsiResponseCache(properties.getCacheMaxEntries(), diskCache);
+        this.rateLimiter = new TokenBucket(properties.getRateLimit(), properties.getRateLimitBurst());
+        this.circuitBreaker = new EsiCircuitBreaker(properties.getErrorLimitSlowdownThreshold(), properties.getErrorLimitPauseThreshold(),
+                properties.getCircuitBreakerFailureThreshold(), properties.getCircuitBreakerOpenDuration().toMillis());
+        this.retryPolicy = new RetryPolicy(properties.getRetryMaxAttempts(), properties.getRetryBaseDelay().toMillis(),
+                properties.getRetryMaxDelay().toMillis());
+        this.searchDeadline = properties.getSearchDeadline();
+        this.meterRegistry = meterRegistry;
+        registerMetrics(properties.getMaxConcurrentRequests());
+    }
+
+    /**
+     * Publishes the gauges and counters that are read from the state of the service. Requests themselves are timed
+     * as they are sent, see {@link #executeOnce}:
+     * <ul>
+     *     <li>{@code esi.requests}: the HTTP exchanges by endpoint type and status code, or {@code IO_ERROR} and
+     *     {@code CANCELLED} if no status was received;</li>
+     *     <li>{@code esi.requests.wait}: the time requests waited for the circuit breaker, the rate limiter and a
+     *     concurrency permit, by endpoint type;</li>
+     *     <li>{@code esi.requests.active} and {@code esi.requests.queued}: the requests holding and waiting for a permit;</li>
+     *     <li>{@code esi.requests.cancelled}: the requests aborted by cancelled searches;</li>
+     *     <li>{@code esi.requests.inflight} and {@code esi.requests.coalesced}: the distinct requests in flight and the
+     *     calls that attached to one of them instead of sending a duplicate;</li>
+     *     <li>{@code cache.gets}, {@code cache.evictions} and {@code cache.size} with {@code cache=esi.responses}:
+     *     the response cache, plus {@code esi.cache.revalidations} for expired entries a 304 renewed and
+     *     {@code esi.cache.disk.hits} for entries served from the disk tier;</li>
+     *     <li>{@code esi.error.limit.remain}, {@code esi.circuit.breaker.open}, {@code esi.circuit.breaker.rejected}
+     *     and {@code esi.circuit.breaker.opened}: the state of the circuit breaker.</li>
+     * </ul>
+     */
+    private void registerMetrics(int maxConcurrentRequests) {
+        Gauge.builder("esi.requests.active", requestPermits, permits -> maxConcurrentRequests - permits.availablePermits())
+                .description("ESI requests holding a concurrency permit")
+                .register(meterRegistry);
+        Gauge.builder("esi.requests.queued", requestPermits, Semaphore::getQueueLength)
+                .description("ESI requests waiting for a concurrency permit")
+                .register(meterRegistry);
+        FunctionCounter.builder("esi.requests.cancelled", cancelledRequests, AtomicLong::get)
+                .description("ESI requests aborted because their search was cancelled")
+                .register(meterRegistry);
+        Gauge.builder("esi.requests.inflight", inFlightRequests, RequestCoalescer::getInFlightCount)
+                .description("Distinct ESI requests in flight")
+                .register(meterRegistry);
+        FunctionCounter.builder("esi.requests.coalesced", inFlightRequests, RequestCoalescer::getCoalescedCount)
+                .description("Calls that attached to an identical ESI request in flight")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("cache.gets", responseCache, EsiResponseCache::getHitCount)
+                .tags("cache", "esi.responses", "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", responseCache, EsiResponseCache::getMissCount)
+                .tags("cache", "esi.responses", "result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", responseCache, EsiResponseCache::getEvictionCount)
+                .tags("cache", "esi.responses")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", responseCache, EsiResponseCache::size)
+                .tags("cache", "esi.responses")
+                .register(meterRegistry);
+        FunctionCounter.builder("esi.cache.revalidations", responseCache, EsiResponseCache::getRevalidationCount)
+                .description("Expired responses renewed by a 304 Not Modified")
+                .register(meterRegistry);
+        FunctionCounter.builder("esi.cache.disk.hits", responseCache, EsiResponseCache::getDiskHitCount)
+                .description("Responses served from the disk cache tier")
+                .register(meterRegistry);
+
+        Gauge.builder("esi.error.limit.remain", circuitBreaker, EsiCircuitBreaker::getErrorLimitRemain)
+                .description("Remaining ESI error budget as last reported by ESI")
+                .register(meterRegistry);
+        Gauge.builder("esi.circuit.breaker.open", circuitBreaker, breaker -> breaker.isOpen() ? 1 : 0)
+                .description("Whether requests are currently paused to protect the ESI error budget")
+                .register(meterRegistry);
+        FunctionCounter.builder("esi.circuit.breaker.rejected", circuitBreaker, EsiCircuitBreaker::getRejectedCount)
+                .description("Requests rejected without being sent while the breaker was open")
+                .register(meterRegistry);
+        FunctionCounter.builder("esi.circuit.breaker.opened", circuitBreaker, EsiCircuitBreaker::getOpenedCount)
+                .description("Times the breaker opened")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens the persistent cache tier if it is enabled. A directory that cannot be used is logged and the
+     * service falls back to caching in memory only.
+     */
+    private static EsiDiskCache openDiskCache(EsiProperties properties, Gson gson) {
+        if (!properties.isDiskCacheEnabled()) {
+            return null;
+        }
+        try {
+            return new EsiDiskCache(Path.of(properties.getDiskCacheDirectory()), gson,
+                    properties.getDiskCacheRetention(), properties.getDiskCacheCompactionInterval());
+        } catch (IOException e) {
+            LOGGER.warning("ESI disk cache unavailable, caching in memory only: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Shuts the HTTP client down when the application stops. Outstanding requests get the configured
+     * shutdown timeout to complete and are aborted afterwards. Pending writes to the disk cache are flushed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        LOGGER.info("Shutting down ESI client");
+        client.shutdown();
+        try {
+            if (!client.awaitTermination(shutdownTimeout)) {
+                LOGGER.warning("ESI requests still outstanding after " + shutdownTimeout + ", aborting them");
+                client.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            client.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            clientExecutor.shutdownNow();
+            if (diskCache != null) {
+                diskCache.close();
+            }
+        }
+    }
 
-    public EveService() {
-        this.client = HttpClient.newHttpClient();
-        this.gson = new Gson();
+    /**
+     * Returns the response cache, e.g. to read its hit, miss and eviction counters.
+     *
+     * @return the response cache
+     */
+    public EsiResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Returns how long a complete search may take before the lookups still outstanding are given up.
+     *
+     * @return the per-search deadline
+     */
+    public Duration getSearchDeadline() {
+        return searchDeadline;
+    }
+
+    /**
+     * Returns the number of requests that were aborted because the search issuing them was cancelled, either while
+     * waiting for a permit or while the HTTP exchange was in progress.
+     *
+     * @return the number of cancelled requests
+     */
+    public long getCancelledRequestCount() {
+        return cancelledRequests.get();
+    }
+
+    /**
+     * Returns the circuit breaker guarding the ESI error budget, e.g. to read the remaining budget or whether requests are paused.
+     *
+     * @return the circuit breaker
+     */
+    public EsiCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Returns the table of in-flight requests, e.g. to read its in-flight and coalesced counts.
+     *
+     * @return the request coalescer
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return inFlightRequests;
     }
 
     /**
@@ -99,13 +355,125 @@ public class EveService {
      * @throws InterruptedException If the operation is interrupted during execution
      */
     public AllianceHistory[] getAllianceHistory(long corporationId) throws IOException, InterruptedException {
+        return fetchAllianceHistory(corporationId).value();
+    }
+
+    /**
+     * Retrieves the alliance history of a corporation like {@link #getAllianceHistory}, together with the point
+     * in time it was current at ESI, which may lie well before the call if it is served from the cache.
+     *
+     * @param corporationId The unique identifier for the corporation
+     * @return The alliance history and the time it was fetched
+     * @throws IOException If an error occurs during the HTTP request or processing
+     * @throws InterruptedException If the operation is interrupted during execution
+     */
+    public Fetched<AllianceHistory[]> fetchAllianceHistory(long corporationId) throws IOException, InterruptedException {
         String url = String.format("https://esi.evetech.net/latest/corporations/%d/alliancehistory/", corporationId);
-        return sendRequest(url, AllianceHistory[].class);
+        return sendRequestFetched(url, AllianceHistory[].class);
+    }
+
+    /**
+     * Resolves the names of many entities at once through the /universe/names endpoint.
+     * IDs whose name is already cached are answered from memory; the remaining IDs are sent as POST requests
+     * of at most {@value #NAMES_CHUNK_SIZE} IDs each. Entities of any category (characters, corporations,
+     * alliances, ...) may be mixed freely.
+     *
+     * @param ids The unique identifiers to resolve; duplicates are ignored
+     * @return A map from ID to name; IDs that ESI did not return a name for are absent
+     * @throws IOException If an error occurs during one of the HTTP requests or processing
+     * @throws InterruptedException If the operation is interrupted during execution
+     */
+    public Map<Long, String> getNames(Collection<Long> ids) throws IOException, InterruptedException {
+        Map<Long, String> names = new HashMap<>();
+        List<Long> unresolved = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            EsiResponseCache.CacheEntry cached = responseCache.lookup(nameCacheKey(id), String.class);
+            if (cached != null && cached.isFresh(System.currentTimeMillis())) {
+                names.put(id, (String) cached.getValue());
+            } else {
+                unresolved.add(id);
+            }
+        }
+
+        long expiresAt = System.currentTimeMillis() + NAME_CACHE_TTL.toMillis();
+        for (int from = 0; from < unresolved.size(); from += NAMES_CHUNK_SIZE) {
+            List<Long> chunk = unresolved.subList(from, Math.min(from + NAMES_CHUNK_SIZE, unresolved.size()));
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(NAMES_URL))
+                    .header("Accept", "application/json")
+                    .header("Accept-Encoding", "gzip")
+                    .header("Content-Type", "application/json")
+                    .timeout(requestTimeout)
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(chunk)))
+                    .build();
+            for (EVE_Name eveName : parseResponse(NAMES_URL, execute(NAMES_URL, request), EVE_Name[].class)) {
+                names.put(eveName.getId(), eveName.getName());
+                responseCache.put(nameCacheKey(eveName.getId()), eveName.getName(), null, expiresAt);
+            }
+        }
+        return names;
+    }
+
+    private static String nameCacheKey(long id) {
+        return NAMES_URL + "#" + id;
+    }
+
+    /**
+     * Resolves character names to IDs through the /universe/ids endpoint, e.g. for a pasted local chat.
+     * Names are matched case-insensitively and sent as POST requests of at most {@value #IDS_CHUNK_SIZE} names each;
+     * resolved names are cached like the ones of {@link #getNames}, since a character name never changes hands.
+     *
+     * @param names The character names to resolve; duplicates and blank names are ignored
+     * @return A map from requested name to character ID; names that match no character are absent
+     * @throws IOException If an error occurs during one of the HTTP requests or processing
+     * @throws InterruptedException If the operation is interrupted during execution
+     */
+    public Map<String, Long> getCharacterIds(Collection<String> names) throws IOException, InterruptedException {
+        Map<String, Long> ids = new HashMap<>();
+        Map<String, List<String>> unresolved = new LinkedHashMap<>();
+        for (String name : names) {
+            String key = name.trim().toLowerCase(Locale.ROOT);
+            if (key.isEmpty()) {
+                continue;
+            }
+            EsiResponseCache.CacheEntry cached = responseCache.lookup(IDS_URL + "#" + key, Long.class);
+            if (cached != null && cached.isFresh(System.currentTimeMillis())) {
+                ids.put(name, (Long) cached.getValue());
+            } else {
+                unresolved.computeIfAbsent(key, k -> new ArrayList<>()).add(name);
+            }
+        }
+
+        long expiresAt = System.currentTimeMillis() + NAME_CACHE_TTL.toMillis();
+        List<String> keys = new ArrayList<>(unresolved.keySet());
+        for (int from = 0; from < keys.size(); from += IDS_CHUNK_SIZE) {
+            List<String> chunk = keys.subList(from, Math.min(from + IDS_CHUNK_SIZE, keys.size()));
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(IDS_URL))
+                    .header("Accept", "application/json")
+                    .header("Accept-Encoding", "gzip")
+                    .header("Content-Type", "application/json")
+                    .timeout(requestTimeout)
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(chunk)))
+                    .build();
+            for (EVE_Name character : parseResponse(IDS_URL, execute(IDS_URL, request), EVE_Ids.class).getCharacters()) {
+                String key = character.getName().toLowerCase(Locale.ROOT);
+                responseCache.put(IDS_URL + "#" + key, character.getId(), null, expiresAt);
+                for (String name : unresolved.getOrDefault(key, List.of())) {
+                    ids.put(name, character.getId());
+                }
+            }
+        }
+        return ids;
     }
 
     /**
      * Sends an HTTP GET request to the specified URL and converts the JSON response into a Java object of the specified type.
      * This generic method is used internally to handle all GET requests within the class.
+     * Fresh responses are served from the shared response cache without contacting ESI. An expired entry is revalidated
+     * with its ETag: a 304 reuses the already parsed object, only a 200 is downloaded and parsed. Otherwise the request
+     * waits for one of the concurrency permits before it is sent, and the parsed result is cached for as long as
+     * the response headers allow. Concurrent callers asking for the same URL share a single request.
      *
      * @param url The URL to send the request to
      * @param responseType The class type into which the JSON response should be converted
@@ -114,33 +482,219 @@ public class EveService {
      * @throws InterruptedException If the operation is interrupted
      */
     private <T> T sendRequest(String url, Class<T> responseType) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
+        return sendRequestFetched(url, responseType).value();
+    }
+
+    /**
+     * Sends an HTTP GET request like {@link #sendRequest}, also returning the point in time the response was current
+     * at ESI, as recorded by the response cache when it was downloaded or last revalidated.
+     */
+    private <T> Fetched<T> sendRequestFetched(String url, Class<T> responseType) throws IOException, InterruptedException {
+        EsiResponseCache.CacheEntry entry = responseCache.lookup(url, responseType);
+        if (entry == null || !entry.isFresh(System.currentTimeMillis())) {
+            EsiResponseCache.CacheEntry cached = entry;
+            entry = inFlightRequests.execute(url, EsiResponseCache.CacheEntry.class, () -> fetch(url, cached, responseType));
+        }
+        return new Fetched<>(responseType.cast(entry.getValue()), entry.getFetchedAt());
+    }
+
+    /**
+     * Downloads a response that is missing from the cache or needs revalidation, and caches the outcome.
+     *
+     * @param url The URL to send the request to
+     * @param cached The expired cache entry to revalidate, or null if there is none
+     * @param responseType The class type into which the JSON response should be converted
+     * @return The cache entry holding the parsed data, also if the response may not be cached
+     * @throws IOException If an error occurs during the HTTP request or in processing the response
+     * @throws InterruptedException If the operation is interrupted
+     */
+    private EsiResponseCache.CacheEntry fetch(String url, EsiResponseCache.CacheEntry cached, Class<?> responseType) throws IOException, InterruptedException {
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("Accept", "application/json")
-                .build();
+                .header("Accept-Encoding", "gzip")
+                .timeout(requestTimeout);
+        if (cached != null) {
+            requestBuilder.header("If-None-Match", cached.getEtag());
+        }
+        HttpRequest request = requestBuilder.build();
 
-        HttpResponse<String> response;
+        HttpResponse<InputStream> response = execute(url, request);
+        long now = System.currentTimeMillis();
+        if (response.statusCode() == 304 && cached != null) {
+            response.body().close();
+            return responseCache.revalidated(url, cached, EsiResponseCache.expiresAt(response.headers(), now),
+                    EsiResponseCache.fetchedAt(response.headers(), now));
+        }
+
+        Object result = parseResponse(url, response, responseType);
+        return responseCache.put(url, result, response.headers().firstValue("ETag").orElse(null),
+                EsiResponseCache.expiresAt(response.headers(), now), EsiResponseCache.fetchedAt(response.headers(), now));
+    }
+
+    /**
+     * Sends a request, retrying transient failures according to the retry policy with exponential backoff and jitter.
+     * Every request ESI is sent by this service is a read, including the POST lookups of /universe/names and
+     * /universe/ids, so any request may safely be sent again; a failure that is not retried is rethrown as is.
+     *
+     * @param url The URL of the request, used for logging
+     * @param request The request to send
+     * @return The response with its body as an unread stream, which the caller must consume or close
+     * @throws EsiUnavailableException If requests are currently paused to protect the ESI error budget
+     * @throws IOException If the last attempt failed or ESI answered with a status that is not retried
+     * @throws InterruptedException If the operation is interrupted, including while waiting for the next attempt
+     */
+    private HttpResponse<InputStream> execute(String url, HttpRequest request) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return executeOnce(url, request);
+            } catch (IOException e) {
+                if (!retryPolicy.shouldRetry(e, attempt)) {
+                    throw e;
+                }
+                long backoff = retryPolicy.backoffMillis(attempt);
+                LOGGER.warning("Retrying " + url + " in " + backoff + "ms after attempt " + attempt + "/" + retryPolicy.getMaxAttempts()
+                        + " failed: " + e.getMessage());
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    /**
+     * Sends a request once the circuit breaker, the rate limiter and one of the concurrency permits allow it.
+     * Any status other than 200, or 304 for conditional requests, is treated as an error. Every outcome is reported
+     * to the circuit breaker so it can track the ESI error budget.
+     *
+     * @param url The URL of the request, used for logging
+     * @param request The request to send
+     * @return The response with its body as an unread stream, which the caller must consume or close
+     * @throws EsiUnavailableException If requests are currently paused to protect the ESI error budget
+     * @throws EsiResponseException If ESI answers with an unexpected status
+     * @throws IOException If an error occurs during the HTTP request
+     * @throws InterruptedException If the operation is interrupted
+     */
+    private HttpResponse<InputStream> executeOnce(String url, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response;
+        String endpoint = endpointOf(url);
 
         try {
-            response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
+            long waitStart = System.nanoTime();
+            circuitBreaker.beforeRequest();
+            rateLimiter.acquire();
+            requestPermits.acquire();
+            long sendStart = System.nanoTime();
+            meterRegistry.timer("esi.requests.wait", "endpoint", endpoint).record(sendStart - waitStart, TimeUnit.NANOSECONDS);
+            String status = "IO_ERROR";
+            try {
+                response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                status = String.valueOf(response.statusCode());
+            } catch (InterruptedException e) {
+                status = "CANCELLED";
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                circuitBreaker.onFailure(); // Also releases the half-open probe, should this request hold it
+                throw e;
+            } finally {
+                requestPermits.release();
+                meterRegistry.timer("esi.requests", "endpoint", endpoint, "status", status)
+                        .record(System.nanoTime() - sendStart, TimeUnit.NANOSECONDS);
+            }
+            circuitBreaker.onResponse(response.statusCode(), response.headers());
+            boolean notModified = response.statusCode() == 304 && request.headers().firstValue("If-None-Match").isPresent();
+            if (response.statusCode() != 200 && !notModified) {
+                response.body().close();
                 LOGGER.severe("HTTP request to " + url + " failed with status code: " + response.statusCode());
-                throw new IOException("Unexpected HTTP response: " + response.statusCode());
+                throw new EsiResponseException(response.statusCode());
             }
-        } catch (IOException | InterruptedException e) {
+        } catch (InterruptedException e) {
+            circuitBreaker.onCancelled();
+            cancelledRequests.incrementAndGet(); // Interrupting send() aborts the exchange
+            LOGGER.fine("HTTP request cancelled for URL: " + url);
+            throw e;
+        } catch (EsiUnavailableException e) {
+            LOGGER.fine("HTTP request to " + url + " not sent: " + e.getMessage()); // The breaker logs once when it opens
+            throw e;
+        } catch (IOException e) {
             LOGGER.severe("HTTP request failed for URL: " + url + ": " + e.getMessage());
             throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onCancelled(); // Never leave the half-open probe held, whatever failed before the send
+            LOGGER.severe("HTTP request failed for URL: " + url + ": " + e);
+            throw e;
         }
+        return response;
+    }
 
-        try {
-            T result = gson.fromJson(response.body(), responseType);
+    /**
+     * Returns the type of ESI endpoint a URL belongs to, the tag requests are timed by. IDs are left out so the
+     * number of time series stays bounded.
+     *
+     * @param url The URL of the request
+     * @return The endpoint type, e.g. {@code corporation_history}
+     */
+    static String endpointOf(String url) {
+        if (url.startsWith(NAMES_URL)) {
+            return "names";
+        }
+        if (url.startsWith(IDS_URL)) {
+            return "ids";
+        }
+        if (url.endsWith("/corporationhistory/")) {
+            return "corporation_history";
+        }
+        if (url.endsWith("/alliancehistory/")) {
+            return "alliance_history";
+        }
+        if (url.contains("/characters/")) {
+            return "character";
+        }
+        if (url.contains("/corporations/")) {
+            return "corporation";
+        }
+        if (url.contains("/alliances/")) {
+            return "alliance";
+        }
+        return "other";
+    }
+
+    /**
+     * Converts the JSON body of a successful response into a Java object of the specified type.
+     * The body is decoded straight from the response stream with a {@link JsonReader}, without buffering it into
+     * a string first, and is decompressed on the fly if ESI sent it gzip-encoded. The stream is always closed.
+     *
+     * @param url The URL of the request, used for logging
+     * @param response The response to parse
+     * @param responseType The class type into which the JSON response should be converted
+     * @return An object of type responseType, containing the parsed data
+     * @throws IOException If the body cannot be read or parsed, or yields no object
+     */
+    private <T> T parseResponse(String url, HttpResponse<InputStream> response, Class<T> responseType) throws IOException {
+        boolean gzip = response.headers().firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent();
+        // The raw body is closed even if the gzip header is corrupt and the wrapping stream is never created
+        try (InputStream raw = response.body();
+             InputStream body = gzip ? new GZIPInputStream(raw, 8192) : raw;
+             JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            T result = gson.fromJson(reader, responseType);
             if (result == null) {
                 throw new IOException("Failed to parse JSON, resulting object is null");
             }
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("JSON document was not fully consumed");
+            }
             return result;
         } catch (JsonParseException e) {
             LOGGER.severe("Failed to parse JSON response for URL: " + url + ": " + e.getMessage());
             throw new IOException("JSON parsing error", e);
         }
     }
+
+    /**
+     * A response together with the point in time it was current at ESI, as epoch milliseconds.
+     *
+     * @param value     The parsed response.
+     * @param fetchedAt The time ESI last generated or confirmed the response; responses stored by an older version
+     *                  of the disk cache count as fetched at the epoch.
+     */
+    public record Fetched<T>(T value, long fetchedAt) {
+    }
 }
@@ -0,0 +1,92 @@
+package com.smell.application.structure;
+
+import com.smell.application.obj.AllianceHistory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the alliance history of every corporation seen so far, together with the time it was last current at ESI,
+ * so that it can be reused without asking ESI again for any tenure that ended before then.
+ * <p>
+ * A stored history is always replaced by the fetched one as is: ESI may still change existing records, e.g. mark them
+ * as deleted, so stored records are never preferred over fresh ones. Reuse is only safe for closed tenures, since a
+ * history can only gain records after the tenure ended, and those cannot overlap it.
+ * <p>
+ * The table is bounded and evicts its least recently used histories.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public class MembershipHistoryStore {
+
+    private final Map<Long, StoredHistory> allianceHistories;
+
+    private final AtomicLong reusedHistories = new AtomicLong();
+
+    /**
+     * @param maxEntries The number of histories kept.
+     */
+    public MembershipHistoryStore(int maxEntries) {
+        this.allianceHistories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, StoredHistory> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Stores a fetched alliance history of a corporation, replacing the stored one unless that is more recent.
+     *
+     * @param corporationId The corporation the history belongs to.
+     * @param fetched       The history as returned by ESI, newest record first.
+     * @param fetchedAt     The point in time the history was current at ESI, as epoch milliseconds. This is what
+     *                      {@link #getAllianceHistoryCovering} compares against, so a history served from a cache
+     *                      must not be stamped with the time it was stored.
+     * @return The fetched history.
+     */
+    public AllianceHistory[] putAllianceHistory(long corporationId, AllianceHistory[] fetched, long fetchedAt) {
+        synchronized (allianceHistories) {
+            StoredHistory stored = allianceHistories.get(corporationId);
+            if (stored == null || stored.refreshedAt() <= fetchedAt) {
+                allianceHistories.put(corporationId, new StoredHistory(fetched, fetchedAt));
+            }
+            return fetched;
+        }
+    }
+
+    /**
+     * Returns the stored alliance history of a corporation if it is complete up to the given point in time,
+     * i.e. if it was current at ESI after that point.
+     *
+     * @param corporationId The corporation the history belongs to.
+     * @param upTo          The point in time, as epoch milliseconds, the history has to cover.
+     * @return The stored history, newest record first, or null if it must be fetched.
+     */
+    public AllianceHistory[] getAllianceHistoryCovering(long corporationId, long upTo) {
+        synchronized (allianceHistories) {
+            StoredHistory stored = allianceHistories.get(corporationId);
+            if (stored == null || stored.refreshedAt() <= upTo) {
+                return null;
+            }
+            reusedHistories.incrementAndGet();
+            return stored.records();
+        }
+    }
+
+    /**
+     * @return the number of alliance histories served from the store without asking ESI
+     */
+    public long getReusedHistoryCount() {
+        return reusedHistories.get();
+    }
+
+    /**
+     * A stored history, newest record first, and the time it was current at ESI.
+     */
+    private record StoredHistory(AllianceHistory[] records, long refreshedAt) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.smell.application.structure;
+
+import com.google.gson.stream.JsonWriter;
+import com.smell.application.user.Alliance;
+import com.smell.application.user.Character;
+import com.smell.application.user.Corporation;
+import com.smell.application.user.EveDates;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Writes the membership timeline of a character as compact JSON, the format shared by the batch output and the REST
+ * API. Dates are ISO-8601, and an ongoing membership has a null end. The objects are written field by field with a
+ * {@link JsonWriter}, without building a JSON tree first.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public final class MembershipJson {
+
+    private MembershipJson() {
+    }
+
+    /**
+     * Returns the snapshot as a single JSON object.
+     *
+     * @param snapshot The snapshot to write.
+     * @return The JSON document.
+     */
+    public static String toJson(CharacterSnapshot snapshot) {
+        StringWriter out = new StringWriter();
+        try (JsonWriter json = new JsonWriter(out)) {
+            json.beginObject();
+            writeFields(json, snapshot);
+            json.endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing to a string cannot fail", e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Returns the membership data of a character as a single JSON object, without any information about when it was
+     * assembled: two assemblies of an unchanged history yield the same document, e.g. to derive an ETag from.
+     *
+     * @param character The character to write.
+     * @return The JSON document.
+     */
+    public static String toTimelineJson(Character character) {
+        StringWriter out = new StringWriter();
+        try (JsonWriter json = new JsonWriter(out)) {
+            json.beginObject();
+            json.name("characterId").value(character.id());
+            json.name("name").value(character.name());
+            writeCorporations(json, character);
+            json.endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing to a string cannot fail", e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the fields of the snapshot into the JSON object the writer is currently in, so callers can add fields
+     * of their own.
+     *
+     * @param json     The writer, positioned inside an object.
+     * @param snapshot The snapshot to write.
+     * @throws IOException If the underlying output fails.
+     */
+    public static void writeFields(JsonWriter json, CharacterSnapshot snapshot) throws IOException {
+        json.name("characterId").value(snapshot.getCharacter().id());
+        json.name("name").value(snapshot.getCharacter().name());
+        json.name("complete").value(snapshot.isComplete());
+        json.name("assembledAt").value(snapshot.getAssembledAt().toString());
+        writeCorporations(json, snapshot.getCharacter());
+    }
+
+    private static void writeCorporations(JsonWriter json, Character character) throws IOException {
+        json.name("corporations").beginArray();
+        for (Corporation corporation : character.corporations()) {
+            json.beginObject();
+            json.name("id").value(corporation.id());
+            json.name("name").value(corporation.name());
+            json.name("start").value(date(corporation.playerStartDate()));
+            json.name("end").value(date(corporation.playerEndDate()));
+            json.name("special").value(corporation.special());
+            json.name("alliances").beginArray();
+            for (Alliance alliance : corporation.alliances()) {
+                json.beginObject();
+                json.name("id").value(alliance.id());
+                json.name("name").value(alliance.name());
+                json.name("start").value(date(alliance.startDate()));
+                json.name("end").value(date(alliance.endDate()));
+                json.name("special").value(alliance.special());
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+        json.endArray();
+    }
+
+    private static String date(long epochSecond) {
+        return epochSecond == EveDates.OPEN_END ? null : EveDates.format(epochSecond);
+    }
+}
@@ -0,0 +1,159 @@
+package com.smell.application.structure;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Collapses concurrent identical requests into a single one ("single flight").
+ * The first caller for a key performs the request; every caller that arrives with the same key while that
+ * request is still pending attaches to it and receives the same result or failure instead of sending a duplicate.
+ * Every failure completes the shared request, errors included, so attached callers never wait forever.
+ * If the first caller is interrupted, e.g. because its search was cancelled, the attached callers do not inherit the
+ * cancellation: one of them performs the request again on its own behalf.
+ * <p>
+ * A caller may pass an attachment, e.g. a listener fan-out, that is published together with its request; callers
+ * attaching to that request are handed the attachment of the caller performing it.
+ * <p>
+ * The number of requests currently in flight and the number of coalesced calls are exposed for monitoring.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public class RequestCoalescer {
+
+    /**
+     * A request that may be shared between several callers.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    public interface Request<T> {
+        T call() throws IOException, InterruptedException;
+    }
+
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Returned by {@link #await} if the caller performing the request was interrupted.
+     */
+    private static final Object ABANDONED = new Object();
+
+    /**
+     * Performs the request, or attaches to an identical one that is already in flight.
+     *
+     * @param key          The key identifying identical requests, typically the request URL.
+     * @param responseType The type of the result.
+     * @param request      The request to perform if none is in flight for the key.
+     * @return The result of the request.
+     * @throws IOException          If the request failed, for this caller or for the caller it attached to.
+     * @throws InterruptedException If this caller is interrupted.
+     */
+    public <T> T execute(String key, Class<T> responseType, Request<T> request) throws IOException, InterruptedException {
+        return execute(key, responseType, request, () -> {
+        });
+    }
+
+    /**
+     * Performs the request, or attaches to an identical one that is already in flight, telling the caller before it
+     * starts waiting for another caller's request.
+     *
+     * @param key          The key identifying identical requests, typically the request URL.
+     * @param responseType The type of the result.
+     * @param request      The request to perform if none is in flight for the key.
+     * @param onAttach     Called every time this caller attaches to another caller's request.
+     * @return The result of the request.
+     * @throws IOException          If the request failed, for this caller or for the caller it attached to.
+     * @throws InterruptedException If this caller is interrupted.
+     */
+    public <T> T execute(String key, Class<T> responseType, Request<T> request, Runnable onAttach) throws IOException, InterruptedException {
+        return execute(key, responseType, null, request, attachment -> onAttach.run());
+    }
+
+    /**
+     * Performs the request, or attaches to an identical one that is already in flight, handing the caller the
+     * attachment of the caller performing that request before it starts waiting. All callers of a key must pass
+     * attachments of the same type.
+     *
+     * @param key          The key identifying identical requests, typically the request URL.
+     * @param responseType The type of the result.
+     * @param attachment   Published with the request if this caller performs it.
+     * @param request      The request to perform if none is in flight for the key.
+     * @param onAttach     Called with the attachment of the performing caller every time this caller attaches to
+     *                     another caller's request.
+     * @return The result of the request.
+     * @throws IOException          If the request failed, for this caller or for the caller it attached to.
+     * @throws InterruptedException If this caller is interrupted.
+     */
+    @SuppressWarnings("unchecked")
+    public <T, A> T execute(String key, Class<T> responseType, A attachment, Request<T> request,
+                            Consumer<? super A> onAttach) throws IOException, InterruptedException {
+        Flight flight = new Flight(new CompletableFuture<>(), attachment);
+        Flight pending;
+        while ((pending = inFlight.putIfAbsent(key, flight)) != null) {
+            coalesced.incrementAndGet();
+            onAttach.accept((A) pending.attachment());
+            Object result = await(pending.result());
+            if (result != ABANDONED) {
+                return responseType.cast(result);
+            }
+        }
+
+        try {
+            T result = request.call();
+            flight.result().complete(result);
+            return result;
+        } catch (Throwable e) {
+            boolean interrupted = e instanceof InterruptedException || Thread.currentThread().isInterrupted();
+            flight.result().completeExceptionally(interrupted ? new InterruptedException("Request abandoned") : e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Waits for the request of another caller. Its failure is rethrown as is, so attached callers see the same
+     * exception type, status code and retry delay as the caller that performed the request.
+     */
+    private static Object await(CompletableFuture<Object> pending) throws IOException, InterruptedException {
+        try {
+            return pending.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof InterruptedException) {
+                return ABANDONED;
+            }
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException("Shared request failed: " + cause, cause);
+        }
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * A request in flight: its pending result and the attachment of the caller performing it.
+     */
+    private record Flight(CompletableFuture<Object> result, Object attachment) {
+    }
+}
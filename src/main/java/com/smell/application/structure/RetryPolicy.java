@@ -0,0 +1,67 @@
+package com.smell.application.structure;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed ESI request is retried and how long to wait before the next attempt.
+ * Only transient failures are retried: the gateway errors ESI returns during brownouts (502, 503, 504) and
+ * transport failures such as connection resets and timeouts. Requests paused by the {@link EsiCircuitBreaker},
+ * client errors and unparseable responses are never retried.
+ * <p>
+ * The delay grows exponentially with every attempt up to a cap, and the actual wait is drawn uniformly from
+ * zero to that value ("full jitter") so that many clients failing at the same moment do not retry in lockstep.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    /**
+     * @param maxAttempts     The total number of attempts including the first one; 1 disables retries.
+     * @param baseDelayMillis The delay cap before the first retry.
+     * @param maxDelayMillis  The upper bound of any delay.
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * @param failure The failure of the previous attempt.
+     * @param attempt The number of the attempt that failed, starting at 1.
+     * @return true if another attempt should be made.
+     */
+    public boolean shouldRetry(IOException failure, int attempt) {
+        if (attempt >= maxAttempts || failure instanceof EsiUnavailableException) {
+            return false;
+        }
+        if (failure instanceof EsiResponseException responseException) {
+            int status = responseException.getStatusCode();
+            return status == 502 || status == 503 || status == 504;
+        }
+        return true; // Transport failure: connection reset, refused or timed out
+    }
+
+    /**
+     * @param attempt The number of the attempt that failed, starting at 1.
+     * @return The randomized delay before the next attempt, in milliseconds.
+     */
+    public long backoffMillis(int attempt) {
+        long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+}
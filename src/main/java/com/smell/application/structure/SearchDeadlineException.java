@@ -0,0 +1,18 @@
+package com.smell.application.structure;
+
+import java.io.IOException;
+
+/**
+ * Signals that a lookup was given up because the search it belongs to ran out of time, see
+ * {@link EveService#getSearchDeadline()}.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public class SearchDeadlineException extends IOException {
+
+    public SearchDeadlineException(Throwable cause) {
+        super("Search deadline exceeded", cause);
+    }
+}
@@ -0,0 +1,76 @@
+package com.smell.application.structure;
+
+import com.smell.application.user.Corporation;
+
+import java.util.List;
+
+/**
+ * Receives the results of a character search while it is assembled, so they can be shown before the whole search
+ * is done. Callbacks arrive on the background thread running the search; every method does nothing by default.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public interface SearchListener {
+
+    /**
+     * A listener that ignores every callback.
+     */
+    SearchListener NONE = new SearchListener() {
+    };
+
+    /**
+     * Called once the corporation history is in, with a pending row per player corporation, newest first.
+     * Pending rows carry the corporation ID and the tenure, but neither a name nor alliances yet.
+     *
+     * @param corporations The pending rows.
+     */
+    default void onCorporations(List<Corporation> corporations) {
+    }
+
+    /**
+     * Called when a pending row has been resolved.
+     *
+     * @param index       The position of the row among the pending rows.
+     * @param corporation The resolved row.
+     */
+    default void onCorporation(int index, Corporation corporation) {
+    }
+
+    /**
+     * Called for every lookup that failed without failing the whole search; the affected corporation or alliance is
+     * left out of the result.
+     *
+     * @param summary What failed, the same for every failure of the same kind.
+     * @param detail  The cause of this failure.
+     */
+    default void onError(String summary, String detail) {
+    }
+
+    /**
+     * Called as lookups complete.
+     *
+     * @param completed The number of completed steps.
+     * @param total     The total number of steps.
+     */
+    default void onProgress(int completed, int total) {
+    }
+
+    /**
+     * Called once with the final result, which may differ from the pending rows if some could not be resolved.
+     *
+     * @param snapshot The assembled or cached character.
+     */
+    default void onComplete(CharacterSnapshot snapshot) {
+    }
+
+    /**
+     * Called once if the search failed or was cancelled.
+     *
+     * @param failure The cause, usually an {@link java.io.IOException}, or an {@link InterruptedException} if the
+     *                search was cancelled.
+     */
+    default void onFailure(Exception failure) {
+    }
+}
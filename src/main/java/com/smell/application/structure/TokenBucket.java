@@ -0,0 +1,57 @@
+package com.smell.application.structure;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket that limits the average rate of an operation while still allowing short bursts.
+ * The bucket holds up to {@code capacity} tokens and is refilled continuously at {@code tokensPerSecond}.
+ * Every operation takes one token, waiting for it if the bucket is empty.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param tokensPerSecond The sustained rate, must be positive.
+     * @param capacity        The maximum burst size, must be at least 1.
+     */
+    public TokenBucket(double tokensPerSecond, int capacity) {
+        if (tokensPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Invalid token bucket: " + tokensPerSecond + "/s, capacity " + capacity);
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes one token, waiting until one is available. Tokens are handed out in the order they are reserved,
+     * so a waiting caller cannot be starved by later ones.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            tokens -= 1; // May go negative: the deficit is this caller's reservation
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / tokensPerNano);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.smell.application.structure.cache;
+
+import com.smell.application.structure.CharacterSnapshot;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-bounded cache of assembled characters keyed by character ID, so repeated searches for the same character
+ * are answered without assembling it again. Every snapshot is served for a fixed time after it was assembled;
+ * entries are evicted in least-recently-used order once the configured capacity is reached.
+ * <p>
+ * The cache is thread-safe and shared by every session of the application. Hit, miss and eviction counters are kept
+ * for monitoring purposes.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public class CharacterResultCache {
+
+    private final Duration timeToLive;
+    private final int maxEntries;
+    private final LinkedHashMap<Long, CharacterSnapshot> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxEntries The capacity of the cache, must be at least 1.
+     * @param timeToLive How long a snapshot is served after it was assembled.
+     */
+    public CharacterResultCache(int maxEntries, Duration timeToLive) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CharacterSnapshot> eldest) {
+                if (size() > CharacterResultCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached snapshot of a character if it is younger than the time to live.
+     *
+     * @param characterId The character to look up.
+     * @return The fresh snapshot, or null if there is none.
+     */
+    public CharacterSnapshot get(long characterId) {
+        Instant oldestServed = Instant.now().minus(timeToLive);
+        synchronized (entries) {
+            CharacterSnapshot snapshot = entries.get(characterId);
+            if (snapshot != null && snapshot.getAssembledAt().isAfter(oldestServed)) {
+                hits.incrementAndGet();
+                return snapshot;
+            }
+            if (snapshot != null) {
+                entries.remove(characterId);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Stores the snapshot of a character, replacing any older one. Incomplete snapshots are not stored.
+     *
+     * @param snapshot The snapshot to store.
+     */
+    public void put(CharacterSnapshot snapshot) {
+        if (!snapshot.isComplete()) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(snapshot.getCharacter().id(), snapshot);
+        }
+    }
+
+    /**
+     * @return how long a snapshot is served after it was assembled
+     */
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+}
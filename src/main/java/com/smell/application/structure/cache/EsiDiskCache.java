@@ -0,0 +1,349 @@
+package com.smell.application.structure.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+/**
+ * A persistent tier behind the {@link EsiResponseCache} that keeps parsed ESI responses, together with their expiry,
+ * fetch time and ETag, in an append-only file, so that a restarted application starts with everything it knew before.
+ * <p>
+ * Every stored response is appended to the file as one JSON line; only an index of key to file position is kept in
+ * memory and values are read back on demand. The index is built in the background when the cache is opened, and
+ * lookups made before it is ready are simply misses, so startup is never blocked by a large file.
+ * Appends are performed asynchronously on a dedicated writer thread, which also periodically compacts the file by
+ * rewriting only the latest version of every entry that is still worth keeping.
+ * <p>
+ * The file is self-contained and needs no external database. A partially written last line, e.g. after a crash,
+ * is detected and cut off when the file is opened.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public class EsiDiskCache implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(EsiDiskCache.class.getName());
+
+    private static final String FILE_NAME = "esi-responses.ndjson";
+
+    private final Path file;
+    private final Gson gson;
+    private final long retentionMillis;
+    private final ScheduledExecutorService writer;
+    private final ReadWriteLock fileLock = new ReentrantReadWriteLock();
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final CompletableFuture<Void> loaded;
+
+    private FileChannel channel;
+    private long fileLength;
+
+    /**
+     * Opens, or creates, the cache in the given directory and starts building its index in the background.
+     *
+     * @param directory          The directory holding the cache file; created if missing.
+     * @param gson               The Gson instance used to serialize and deserialize the cached objects.
+     * @param retention          How long an entry is kept after it expired; entries with an ETag stay useful for revalidation until then.
+     * @param compactionInterval How often the file is checked for compaction.
+     * @throws IOException If the directory or the file cannot be opened.
+     */
+    public EsiDiskCache(Path directory, Gson gson, Duration retention, Duration compactionInterval) throws IOException {
+        Files.createDirectories(directory);
+        this.file = directory.resolve(FILE_NAME);
+        this.gson = gson;
+        this.retentionMillis = retention.toMillis();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.writer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("esi-disk-cache").daemon().factory());
+        this.loaded = CompletableFuture.runAsync(this::loadIndex, writer);
+        long interval = compactionInterval.toMillis();
+        writer.scheduleWithFixedDelay(this::compactIfWorthwhile, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads a stored entry. Returns null while the index is still being built, if there is no entry for the key,
+     * or if the entry has outlived its retention.
+     *
+     * @param key       The cache key, typically the request URL.
+     * @param valueType The type the value was stored as.
+     * @return The stored entry, fresh or expired, or null.
+     */
+    public EsiResponseCache.CacheEntry lookup(String key, Class<?> valueType) {
+        if (!loaded.isDone()) {
+            return null;
+        }
+        // The location is read under the lock, since compaction rewrites the file and swaps the index under the
+        // write lock; a location read before it would point into the old file
+        fileLock.readLock().lock();
+        Location location = index.get(key);
+        try {
+            if (location == null || location.expiresAt() + retentionMillis < System.currentTimeMillis()) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(location.length());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, location.offset() + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of cache file");
+                }
+            }
+            Record record = parseRecord(new String(buffer.array(), StandardCharsets.UTF_8));
+            if (!key.equals(record.key())) {
+                throw new IOException("Cache index is out of sync with the file");
+            }
+            return new EsiResponseCache.CacheEntry(gson.fromJson(record.body(), valueType), record.etag(), record.expiresAt(),
+                    record.fetchedAt());
+        } catch (IOException | JsonParseException e) {
+            LOGGER.warning("Failed to read cached response for " + key + ": " + e.getMessage());
+            index.remove(key, location);
+            return null;
+        } finally {
+            fileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Schedules an entry to be appended to the file. The call returns immediately.
+     *
+     * @param key   The cache key, typically the request URL.
+     * @param entry The entry to store.
+     */
+    public void put(String key, EsiResponseCache.CacheEntry entry) {
+        String line;
+        try {
+            StringWriter out = new StringWriter();
+            JsonWriter json = new JsonWriter(out);
+            json.beginObject();
+            json.name("k").value(key);
+            json.name("e").value(entry.getExpiresAt());
+            json.name("t").value(entry.getEtag());
+            json.name("f").value(entry.getFetchedAt());
+            json.name("b");
+            gson.toJson(gson.toJsonTree(entry.getValue()), json);
+            json.endObject();
+            json.flush();
+            line = out.toString();
+        } catch (IOException | JsonParseException e) {
+            LOGGER.warning("Failed to serialize response for " + key + ": " + e.getMessage());
+            return;
+        }
+
+        try {
+            writer.execute(() -> append(key, line, entry.getExpiresAt()));
+        } catch (RejectedExecutionException e) {
+            // The cache is closing; the entry is simply not persisted
+        }
+    }
+
+    /**
+     * Appends a serialized record; runs on the writer thread only.
+     */
+    private void append(String key, String line, long expiresAt) {
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        fileLock.writeLock().lock();
+        try {
+            long offset = fileLength;
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+            fileLength += bytes.length;
+            index.put(key, new Location(offset, bytes.length - 1, expiresAt));
+        } catch (IOException e) {
+            LOGGER.warning("Failed to persist response for " + key + ": " + e.getMessage());
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Scans the file once and records the position of the latest version of every key. Runs on the writer thread,
+     * before any append. A trailing partial line is truncated.
+     */
+    private void loadIndex() {
+        long offset = 0;
+        int entries = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(1024);
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                try {
+                    Record record = parseRecord(line.toString(StandardCharsets.UTF_8));
+                    index.put(record.key(), new Location(offset, line.size(), record.expiresAt()));
+                    entries++;
+                } catch (IOException | JsonParseException e) {
+                    LOGGER.warning("Skipping unreadable cache record at offset " + offset + ": " + e.getMessage());
+                }
+                offset += line.size() + 1;
+                line.reset();
+            }
+            fileLock.writeLock().lock();
+            try {
+                channel.truncate(offset);
+                fileLength = offset;
+            } finally {
+                fileLock.writeLock().unlock();
+            }
+            LOGGER.info("Loaded " + index.size() + " cached ESI responses from " + entries + " records in " + file);
+        } catch (IOException e) {
+            LOGGER.warning("Failed to load ESI disk cache " + file + ", starting empty: " + e.getMessage());
+            index.clear();
+        }
+    }
+
+    /**
+     * Rewrites the file with only the latest, still retained version of every entry once at least half of it is garbage.
+     * Runs on the writer thread, so no append can interleave.
+     */
+    private void compactIfWorthwhile() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        index.entrySet().removeIf(entry -> entry.getValue().expiresAt() < cutoff);
+        long liveBytes = index.values().stream().mapToLong(location -> location.length() + 1L).sum();
+        if (fileLength == 0 || liveBytes * 2 > fileLength) {
+            return;
+        }
+
+        Path compacted = file.resolveSibling(FILE_NAME + ".compact");
+        Map<String, Location> newIndex = new ConcurrentHashMap<>();
+        fileLock.writeLock().lock();
+        try {
+            long offset = 0;
+            try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (Map.Entry<String, Location> entry : index.entrySet()) {
+                    Location location = entry.getValue();
+                    ByteBuffer buffer = ByteBuffer.allocate(location.length() + 1);
+                    while (buffer.hasRemaining()) {
+                        if (channel.read(buffer, location.offset() + buffer.position()) < 0) {
+                            throw new IOException("Unexpected end of cache file");
+                        }
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    newIndex.put(entry.getKey(), new Location(offset, location.length(), location.expiresAt()));
+                    offset += location.length() + 1;
+                }
+                out.force(true);
+            }
+            channel.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            LOGGER.info("Compacted ESI disk cache from " + fileLength + " to " + offset + " bytes");
+            fileLength = offset;
+            index.clear();
+            index.putAll(newIndex);
+        } catch (IOException e) {
+            LOGGER.warning("Failed to compact ESI disk cache: " + e.getMessage());
+            try {
+                if (!channel.isOpen()) {
+                    channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+            } catch (IOException reopenFailure) {
+                LOGGER.severe("ESI disk cache is unusable: " + reopenFailure.getMessage());
+                index.clear();
+            }
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    private static Record parseRecord(String line) throws IOException {
+        String key = null;
+        long expiresAt = 0;
+        // Records written before the fetch time was stored count as fetched at the epoch, i.e. as long outdated
+        long fetchedAt = 0;
+        String etag = null;
+        JsonElement body = null;
+        try (JsonReader reader = new JsonReader(new StringReader(line))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "k" -> key = reader.nextString();
+                    case "e" -> expiresAt = reader.nextLong();
+                    case "f" -> fetchedAt = reader.nextLong();
+                    case "t" -> etag = reader.peek() == JsonToken.NULL ? nullValue(reader) : reader.nextString();
+                    case "b" -> body = JsonParser.parseReader(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        if (key == null || body == null) {
+            throw new IOException("Incomplete cache record");
+        }
+        return new Record(key, expiresAt, fetchedAt, etag, body);
+    }
+
+    private static String nullValue(JsonReader reader) throws IOException {
+        reader.nextNull();
+        return null;
+    }
+
+    /**
+     * Writes outstanding appends and closes the file.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        fileLock.writeLock().lock();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warning("Failed to close ESI disk cache: " + e.getMessage());
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Position of a record in the file; the length excludes the line terminator.
+     */
+    private record Location(long offset, int length, long expiresAt) {
+    }
+
+    private record Record(String key, long expiresAt, long fetchedAt, String etag, JsonElement body) {
+    }
+}
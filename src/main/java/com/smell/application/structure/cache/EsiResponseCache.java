@@ -0,0 +1,318 @@
+package com.smell.application.structure.cache;
+
+import java.net.http.HttpHeaders;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * A size-bounded, in-memory cache of parsed ESI responses keyed by request URL.
+ * Entries are evicted in least-recently-used order once the configured capacity is reached,
+ * and every entry carries its own expiry derived from the Cache-Control or Expires header ESI sent with it.
+ * Expired entries that carry an ETag are retained so they can be revalidated with a conditional request
+ * instead of being downloaded and parsed again.
+ * <p>
+ * The cache is thread-safe and meant to be shared by every session of the application. Cached objects are
+ * handed out as-is, so callers must treat them as read-only.
+ * <p>
+ * Optionally, an {@link EsiDiskCache} is used as a second tier: every stored entry is written through to it, and
+ * entries missing from memory are looked up there and promoted back into memory, so the cache survives restarts.
+ * <p>
+ * Hit, miss, revalidation and eviction counters are kept for monitoring purposes; hits served from disk are
+ * counted separately as well.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public class EsiResponseCache {
+    private static final Logger LOGGER = Logger.getLogger(EsiResponseCache.class.getName());
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, CacheEntry> entries;
+    private final EsiDiskCache diskCache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+
+    /**
+     * Creates an empty in-memory cache holding at most the given number of entries.
+     *
+     * @param maxEntries The capacity of the cache, must be at least 1.
+     */
+    public EsiResponseCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * Creates an in-memory cache holding at most the given number of entries, backed by a persistent tier.
+     *
+     * @param maxEntries The capacity of the in-memory tier, must be at least 1.
+     * @param diskCache  The persistent tier, or null to keep entries in memory only.
+     */
+    public EsiResponseCache(int maxEntries, EsiDiskCache diskCache) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.diskCache = diskCache;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                if (size() > EsiResponseCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up the entry for the given key, consulting the persistent tier if it is not in memory.
+     * A fresh entry counts as a hit; anything else counts as a miss. Expired entries are still returned if they
+     * carry an ETag, so the caller can revalidate them, and are dropped otherwise.
+     *
+     * @param key       The cache key, typically the request URL.
+     * @param valueType The type of the cached value, needed to restore it from the persistent tier.
+     * @return The fresh or revalidatable entry, or null if there is none.
+     */
+    public CacheEntry lookup(String key, Class<?> valueType) {
+        long now = System.currentTimeMillis();
+        CacheEntry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null && diskCache != null) {
+            entry = diskCache.lookup(key, valueType);
+            if (entry != null) {
+                diskHits.incrementAndGet();
+                synchronized (entries) {
+                    entries.putIfAbsent(key, entry);
+                }
+            }
+        }
+
+        if (entry != null && entry.isFresh(now)) {
+            hits.incrementAndGet();
+            return entry;
+        }
+        misses.incrementAndGet();
+        if (entry != null && entry.getEtag() == null) {
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Stores a value until the given point in time, in memory and in the persistent tier. Values that are already
+     * expired are only stored if they carry an ETag, since they can then still be revalidated.
+     *
+     * @param key       The cache key, typically the request URL.
+     * @param value     The parsed response to cache.
+     * @param etag      The ETag ESI sent with the response, or null if there was none.
+     * @param expiresAt The expiry as epoch milliseconds.
+     */
+    public void put(String key, Object value, String etag, long expiresAt) {
+        put(key, value, etag, expiresAt, System.currentTimeMillis());
+    }
+
+    /**
+     * Stores a value like {@link #put(String, Object, String, long)}, recording when ESI produced it.
+     *
+     * @param key       The cache key, typically the request URL.
+     * @param value     The parsed response to cache.
+     * @param etag      The ETag ESI sent with the response, or null if there was none.
+     * @param expiresAt The expiry as epoch milliseconds.
+     * @param fetchedAt The point in time the value was current at ESI, see {@link #fetchedAt}.
+     * @return The entry, also if it was not stored.
+     */
+    public CacheEntry put(String key, Object value, String etag, long expiresAt, long fetchedAt) {
+        CacheEntry entry = new CacheEntry(value, etag, expiresAt, fetchedAt);
+        if (value == null || (etag == null && expiresAt <= System.currentTimeMillis())) {
+            return entry;
+        }
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        if (diskCache != null) {
+            diskCache.put(key, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Extends the lifetime of an entry after ESI confirmed with a 304 that it is unchanged. The value counts as
+     * fetched at the time of the confirmation.
+     *
+     * @param key       The cache key, typically the request URL.
+     * @param entry     The entry that was revalidated.
+     * @param expiresAt The new expiry as epoch milliseconds.
+     * @param fetchedAt The point in time the value was confirmed to be current, see {@link #fetchedAt}.
+     * @return The revalidated entry.
+     */
+    public CacheEntry revalidated(String key, CacheEntry entry, long expiresAt, long fetchedAt) {
+        revalidations.incrementAndGet();
+        return put(key, entry.getValue(), entry.getEtag(), expiresAt, fetchedAt);
+    }
+
+    /**
+     * Removes all entries from memory. The persistent tier and the counters are left untouched.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getRevalidationCount() {
+        return revalidations.get();
+    }
+
+    /**
+     * @return the number of lookups that missed memory but were answered by the persistent tier
+     */
+    public long getDiskHitCount() {
+        return diskHits.get();
+    }
+
+    /**
+     * Determines when a response stops being fresh, following the caching headers ESI sends.
+     * A Cache-Control max-age directive takes precedence over the Expires header, and no-store or no-cache
+     * make the response expire immediately. The Expires header is interpreted relative to the Date header of
+     * the same response, which keeps the computed lifetime correct even when the local clock is skewed.
+     *
+     * @param headers The response headers.
+     * @param now     The local time the response was received, as epoch milliseconds.
+     * @return The expiry as epoch milliseconds; a value not after {@code now} means the response must not be cached.
+     */
+    public static long expiresAt(HttpHeaders headers, long now) {
+        Optional<String> cacheControl = headers.firstValue("Cache-Control");
+        if (cacheControl.isPresent()) {
+            for (String directive : cacheControl.get().split(",")) {
+                String trimmed = directive.trim().toLowerCase();
+                if (trimmed.equals("no-store") || trimmed.equals("no-cache")) {
+                    return now;
+                }
+                if (trimmed.startsWith("max-age=")) {
+                    try {
+                        return now + Long.parseLong(trimmed.substring("max-age=".length())) * 1000;
+                    } catch (NumberFormatException e) {
+                        LOGGER.warning("Ignoring malformed Cache-Control directive: " + directive);
+                    }
+                }
+            }
+        }
+
+        Optional<String> expires = headers.firstValue("Expires");
+        if (expires.isEmpty()) {
+            return now;
+        }
+        try {
+            long expiresMillis = parseHttpDate(expires.get());
+            long dateMillis = headers.firstValue("Date").map(EsiResponseCache::parseHttpDate).orElse(now);
+            return now + (expiresMillis - dateMillis);
+        } catch (DateTimeParseException e) {
+            LOGGER.warning("Ignoring malformed Expires header: " + expires.get());
+            return now;
+        }
+    }
+
+    /**
+     * Determines the point in time a response was current at ESI. ESI serves its own cached copy for the lifetime of
+     * a route, so the {@code Last-Modified} header is used if present; otherwise the response counts as current when
+     * it was received.
+     *
+     * @param headers The response headers.
+     * @param now     The local time the response was received, as epoch milliseconds.
+     * @return The point in time as epoch milliseconds, never after {@code now}.
+     */
+    public static long fetchedAt(HttpHeaders headers, long now) {
+        Optional<String> lastModified = headers.firstValue("Last-Modified");
+        if (lastModified.isEmpty()) {
+            return now;
+        }
+        try {
+            long lastModifiedMillis = parseHttpDate(lastModified.get());
+            long dateMillis = headers.firstValue("Date").map(EsiResponseCache::parseHttpDate).orElse(now);
+            return Math.min(now, now - (dateMillis - lastModifiedMillis));
+        } catch (DateTimeParseException e) {
+            LOGGER.warning("Ignoring malformed Last-Modified header: " + lastModified.get());
+            return now;
+        }
+    }
+
+    private static long parseHttpDate(String value) {
+        return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+    }
+
+    /**
+     * A cached value together with its ETag, the point in time it expires and the point in time it was current at ESI.
+     */
+    public static final class CacheEntry {
+        private final Object value;
+        private final String etag;
+        private final long expiresAt;
+        private final long fetchedAt;
+
+        CacheEntry(Object value, String etag, long expiresAt, long fetchedAt) {
+            this.value = value;
+            this.etag = etag;
+            this.expiresAt = expiresAt;
+            this.fetchedAt = fetchedAt;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public long getFetchedAt() {
+            return fetchedAt;
+        }
+
+        public boolean isFresh(long now) {
+            return now < expiresAt;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.smell.application.structure.snowflake;
+
+/**
+ * An immutable map from {@code long} keys to {@code byte} values, stored in two primitive arrays with open addressing
+ * and linear probing. Lookups neither box the key nor allocate. The key 0 is reserved to mark empty slots and can
+ * therefore not be stored; looking it up always yields the default value.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public final class LongByteMap {
+
+    private final long[] keys;
+    private final byte[] values;
+    private final int mask;
+    private final int size;
+
+    /**
+     * Creates a map of the given entries.
+     *
+     * @param entryKeys   The keys, all different from 0 and from each other.
+     * @param entryValues The value of each key, at the same position.
+     */
+    public LongByteMap(long[] entryKeys, byte[] entryValues) {
+        if (entryKeys.length != entryValues.length) {
+            throw new IllegalArgumentException("Got " + entryKeys.length + " keys but " + entryValues.length + " values");
+        }
+        int capacity = Integer.highestOneBit(Math.max(entryKeys.length * 2, 4) - 1) << 1; // Load factor of at most 0.5
+        this.keys = new long[capacity];
+        this.values = new byte[capacity];
+        this.mask = capacity - 1;
+        this.size = entryKeys.length;
+
+        for (int i = 0; i < entryKeys.length; i++) {
+            long key = entryKeys[i];
+            if (key == 0) {
+                throw new IllegalArgumentException("The key 0 cannot be stored");
+            }
+            int slot = slot(key);
+            while (keys[slot] != 0) {
+                if (keys[slot] == key) {
+                    throw new IllegalArgumentException("Duplicate key " + key);
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = entryValues[i];
+        }
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key          The key to look up.
+     * @param defaultValue The value to return if the key is not in the map.
+     * @return The value of the key, or the default value.
+     */
+    public byte get(long key, byte defaultValue) {
+        if (key == 0) {
+            return defaultValue;
+        }
+        int slot = slot(key);
+        long candidate;
+        while ((candidate = keys[slot]) != 0) {
+            if (candidate == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads the sequential EVE IDs
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
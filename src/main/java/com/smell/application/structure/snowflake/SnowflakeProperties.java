@@ -0,0 +1,43 @@
+package com.smell.application.structure.snowflake;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration of the snowflake list, bound from the {@code snowflakes.*} application properties.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+@ConfigurationProperties(prefix = "snowflakes")
+public class SnowflakeProperties {
+
+    /**
+     * External snowflake list, reloaded whenever it changes; the list bundled with the application is used if unset.
+     */
+    private Path file;
+
+    /**
+     * How often the external snowflake list is checked for changes.
+     */
+    private Duration reloadInterval = Duration.ofSeconds(30);
+
+    public Path getFile() {
+        return file;
+    }
+
+    public void setFile(Path file) {
+        this.file = file;
+    }
+
+    public Duration getReloadInterval() {
+        return reloadInterval;
+    }
+
+    public void setReloadInterval(Duration reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+}
@@ -0,0 +1,206 @@
+package com.smell.application.structure.snowflake;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Knows which alliances and corporations are "snowflakes" and which bloc each of them belongs to.
+ * <p>
+ * The list is read from the file configured as {@code snowflakes.file}, or from the {@code snowflakes.txt} bundled
+ * with the application if none is configured. Each line holds an ID and a bloc name, optionally followed by a
+ * {@code #} comment. The configured file is checked for changes periodically and reloaded without a restart; the new
+ * list replaces the old one atomically. A file that cannot be read, or that holds no entries or more malformed lines
+ * than entries, e.g. because it was caught half written, leaves the current list in place.
+ * <p>
+ * Lookups go through an immutable primitive {@link LongByteMap} of ID to bloc ordinal, so {@link #classify(long)}
+ * neither boxes nor allocates.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+@Component
+public class SnowflakeRegistry {
+    private static final Logger LOGGER = Logger.getLogger(SnowflakeRegistry.class.getName());
+
+    /**
+     * The bloc ordinal of IDs that are not snowflakes.
+     */
+    public static final byte NONE = 0;
+
+    private static final String BUNDLED_LIST = "/snowflakes.txt";
+
+    private final Path file;
+    private final ScheduledExecutorService watcher;
+    private volatile Snapshot snapshot;
+    private FileTime loadedVersion;
+
+    public SnowflakeRegistry(SnowflakeProperties properties) throws IOException {
+        this.file = properties.getFile();
+        if (file == null) {
+            try (InputStream in = SnowflakeRegistry.class.getResourceAsStream(BUNDLED_LIST)) {
+                if (in == null) {
+                    throw new IOException("Bundled snowflake list " + BUNDLED_LIST + " is missing");
+                }
+                snapshot = parse(in, BUNDLED_LIST);
+            }
+            watcher = null;
+        } else {
+            reload();
+            if (snapshot == null) {
+                throw new IOException("Snowflake list " + file + " could not be loaded");
+            }
+            long interval = properties.getReloadInterval().toMillis();
+            watcher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("snowflake-watcher").daemon().factory());
+            watcher.scheduleWithFixedDelay(this::reload, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        LOGGER.info("Loaded " + snapshot.ids().size() + " snowflakes in " + (snapshot.blocs().length - 1) + " blocs");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the bloc of an alliance or corporation.
+     *
+     * @param id The alliance or corporation ID.
+     * @return The bloc ordinal, or {@link #NONE} if the ID is not a snowflake.
+     */
+    public byte classify(long id) {
+        return snapshot.ids().get(id, NONE);
+    }
+
+    /**
+     * Returns whether an alliance or corporation is a snowflake.
+     *
+     * @param id The alliance or corporation ID.
+     * @return true if the ID belongs to any bloc.
+     */
+    public boolean isSnowflake(long id) {
+        return classify(id) != NONE;
+    }
+
+    /**
+     * Returns the name of a bloc as written in the snowflake list.
+     *
+     * @param bloc A bloc ordinal returned by {@link #classify(long)}.
+     * @return The bloc name, or null for {@link #NONE} and unknown ordinals.
+     */
+    public String getBlocName(byte bloc) {
+        String[] blocs = snapshot.blocs();
+        return bloc > NONE && bloc < blocs.length ? blocs[bloc] : null;
+    }
+
+    /**
+     * Reloads the configured file if it changed since it was last loaded. Runs on the watcher thread only,
+     * apart from the initial load.
+     */
+    private void reload() {
+        try {
+            FileTime version = Files.getLastModifiedTime(file);
+            if (version.equals(loadedVersion)) {
+                return;
+            }
+            Snapshot loaded;
+            try (InputStream in = Files.newInputStream(file)) {
+                loaded = parse(in, file.toString());
+            }
+            loadedVersion = version;
+            if (loaded.ids().size() == 0 || loaded.malformedLines() > loaded.ids().size()) {
+                LOGGER.warning("Ignoring snowflake list " + file + " with " + loaded.ids().size() + " entries and "
+                        + loaded.malformedLines() + " malformed lines, keeping the current one");
+                return;
+            }
+            boolean initial = snapshot == null;
+            snapshot = loaded;
+            if (!initial) {
+                LOGGER.info("Reloaded " + snapshot.ids().size() + " snowflakes from " + file);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warning("Failed to load snowflake list " + file + ", keeping the current one: " + e.getMessage());
+        }
+    }
+
+    private static Snapshot parse(InputStream in, String source) throws IOException {
+        Map<String, Byte> blocOrdinals = new HashMap<>();
+        List<String> blocs = new ArrayList<>();
+        blocs.add(null); // NONE
+        Map<Long, Byte> entries = new HashMap<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        int malformedLines = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            String content = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (content.isEmpty()) {
+                continue;
+            }
+
+            String[] fields = content.split("\\s+");
+            long id;
+            try {
+                id = fields.length == 2 ? Long.parseLong(fields[0]) : 0;
+            } catch (NumberFormatException e) {
+                id = 0;
+            }
+            if (id <= 0) {
+                LOGGER.warning("Skipping malformed line " + lineNumber + " of " + source + ": " + line);
+                malformedLines++;
+                continue;
+            }
+
+            Byte bloc = blocOrdinals.get(fields[1]);
+            if (bloc == null) {
+                if (blocs.size() > Byte.MAX_VALUE) {
+                    throw new IOException("Too many blocs in " + source + ", at most " + Byte.MAX_VALUE + " are supported");
+                }
+                bloc = (byte) blocs.size();
+                blocOrdinals.put(fields[1], bloc);
+                blocs.add(fields[1]);
+            }
+            if (entries.put(id, bloc) != null) {
+                LOGGER.warning("Duplicate ID " + id + " on line " + lineNumber + " of " + source + ", the last one wins");
+            }
+        }
+
+        long[] ids = new long[entries.size()];
+        byte[] ordinals = new byte[entries.size()];
+        int i = 0;
+        for (Map.Entry<Long, Byte> entry : entries.entrySet()) {
+            ids[i] = entry.getKey();
+            ordinals[i++] = entry.getValue();
+        }
+        return new Snapshot(new LongByteMap(ids, ordinals), blocs.toArray(new String[0]), malformedLines);
+    }
+
+    /**
+     * A loaded snowflake list: the bloc of every ID, the bloc names indexed by ordinal, and the number of lines that
+     * were skipped as malformed.
+     */
+    private record Snapshot(LongByteMap ids, String[] blocs, int malformedLines) {
+    }
+}
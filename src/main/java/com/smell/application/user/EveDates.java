@@ -0,0 +1,44 @@
+package com.smell.application.user;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+/**
+ * Conversions between the ISO-8601 dates ESI uses and the epoch seconds the domain model stores.
+ * An ongoing membership ends at {@link #OPEN_END}, which compares after every real date.
+ *
+ * @author FlynnDynamics
+ * @version ${version}
+ * @since 18/10/26
+ */
+public final class EveDates {
+
+    /**
+     * The end of a membership that has not ended yet.
+     */
+    public static final long OPEN_END = Long.MAX_VALUE;
+
+    private EveDates() {
+    }
+
+    /**
+     * Parses an ESI date into epoch seconds.
+     *
+     * @param isoDate The date in ISO_OFFSET_DATE_TIME format, e.g. {@code 2019-05-01T12:34:56Z}.
+     * @return The date as epoch seconds.
+     * @throws java.time.format.DateTimeParseException if the date cannot be parsed.
+     */
+    public static long parse(String isoDate) {
+        return OffsetDateTime.parse(isoDate).toEpochSecond();
+    }
+
+    /**
+     * Formats epoch seconds for display the way ESI writes them, and an open end as "now".
+     *
+     * @param epochSecond The date as epoch seconds, or {@link #OPEN_END}.
+     * @return The formatted date.
+     */
+    public static String format(long epochSecond) {
+        return epochSecond == OPEN_END ? "now" : Instant.ofEpochSecond(epochSecond).toString();
+    }
+}
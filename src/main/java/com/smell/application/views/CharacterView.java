@@ -1,31 +1,34 @@
 package com.smell.application.views;
 
-import com.smell.application.structure.ComparisonService;
-import com.smell.application.structure.ErrorNotificationManager;
 import com.smell.application.user.Alliance;
 import com.smell.application.user.Character;
 import com.smell.application.user.Corporation;
+import com.smell.application.user.EveDates;
 import com.vaadin.flow.component.dependency.CssImport;
-import com.vaadin.flow.component.grid.Grid;
-import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.grid.GridVariant;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
-import com.vaadin.flow.data.provider.Query;
-import com.vaadin.flow.data.renderer.ComponentRenderer;
+import com.vaadin.flow.component.treegrid.TreeGrid;
+import com.vaadin.flow.data.provider.hierarchy.AbstractBackEndHierarchicalDataProvider;
+import com.vaadin.flow.data.provider.hierarchy.HierarchicalQuery;
 import com.vaadin.flow.router.Route;
-import com.vaadin.flow.component.grid.GridVariant;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * CharacterView is a Vaadin view component that displays information about characters
  * along with their associated corporations and alliances in a structured grid format.
- * The class is responsible for rendering corporation details and dynamically displaying
- * their alliances when selected.
+ * The class is responsible for rendering corporation rows and, below each of them,
+ * the alliances the character was in through that corporation.
  * <p>
- * The grid is configured to be non-clickable by default, and expands to show detailed
- * information about each corporation's alliances when appropriate conditions are met
- * within the date range specified.
+ * The grid is a tree grid of corporation → alliances backed by a lazy data provider: the browser
+ * only fetches the rows in its viewport, page by page, and the alliances of a corporation are only
+ * sent once its row is expanded. Server work and payload therefore stay flat no matter how long
+ * the history is.
  * <p>
  * This view is accessed via the "/character-view" route and includes specific styling
  * defined in "shared-styles.css".
@@ -34,8 +37,8 @@ import java.util.logging.Logger;
  * - The view is initialized with a full-height setting and immediately sets up the grid
  * upon construction.
  * - Corporations are listed with details such as names and IDs, and can be expanded to
- * show alliances that fall within specific temporal ranges.
- * - Special styling is applied to alliances marked as 'special' to highlight them in the UI.
+ * show the alliances of the tenure. Corporations with a snowflake alliance are expanded from the start.
+ * - Special styling is applied to corporations and alliances marked as 'special' to highlight them in the UI.
  *
  * @author FlynnDynamics
  * @version ${version}
@@ -47,7 +50,10 @@ import java.util.logging.Logger;
 public class CharacterView extends VerticalLayout {
     private static final Logger LOGGER = Logger.getLogger(CharacterView.class.getName());
 
-    private Grid<Corporation> grid;
+    private TreeGrid<MembershipRow> grid;
+    private final MembershipDataProvider dataProvider = new MembershipDataProvider();
+    private List<Corporation> rows = new ArrayList<>();
+    private int generation;
 
     /**
      * Constructor for CharacterView. Initializes the grid and adds it to the layout.
@@ -60,77 +66,190 @@ public class CharacterView extends VerticalLayout {
     }
 
     /**
-     * Configures the grid to display corporation data and their alliances. The grid columns are set up to show
-     * corporation names, IDs, and active dates. It also includes a detailed renderer for displaying
-     * alliances associated with each corporation based on overlapping date ranges.
+     * Configures the tree grid to display corporations with their alliances as children. The columns show
+     * names, IDs, and active dates; the alliance rows are the ones the character was in through each corporation,
+     * computed once when the character is assembled, so rendering them only formats values.
      */
     private void setupGrid() {
-        grid = new Grid<>(Corporation.class, false);
-
-        grid.addColumn(Corporation::getName).setHeader("Corporation Name").setKey("name");
-        grid.addColumn(Corporation::getId).setHeader("Corporation ID").setKey("id");
-        grid.addColumn(Corporation::getPlayerStartDate).setHeader("Start").setKey("playerStartDate");
-        grid.setDetailsVisibleOnClick(false);
-        grid.addColumn(Corporation::getPlayerEndDate).setHeader("End").setKey("playerEndDate");
-        grid.setItemDetailsRenderer(new ComponentRenderer<>(corporation -> {
-            VerticalLayout layout = new VerticalLayout();
-            layout.addClassName("details-layout");
-
-            for (Alliance alliance : corporation.getAlliances()) {
-                if (alliance.getId() == 0) continue;
-
-                try {
-                    if (ComparisonService.isTimeWithinRange(corporation.getPlayerStartDate(), corporation.getPlayerEndDate(), alliance.getStartDate(), alliance.getEndDate())) {
-                        Span allianceDetails = new Span(String.format("%s; %d; %s; %s",
-                                alliance.getName(), alliance.getId(), alliance.getStartDate(), alliance.getEndDate()));
-                        allianceDetails.getStyle().set("padding-left", "30px");
-
-                        if (alliance.isSpecial()) {
-                            allianceDetails.addClassNames("special-alliance");
-                        }
-
-                        layout.add(allianceDetails);
-                    }
-                } catch (IllegalArgumentException e) {
-                    LOGGER.warning("Date comparison error: " + e.getMessage());
-                    ErrorNotificationManager.addErrorMessage("Date comparison error: " + e.getMessage());
-                } catch (Exception e) {
-                    LOGGER.severe("Error setting up the grid: " + e.getMessage());
-                    Notification.show("Failed to set up the grid.", 5000, Notification.Position.BOTTOM_START);
-                }
-            }
+        grid = new TreeGrid<>();
 
-            return layout;
-        }));
+        grid.addHierarchyColumn(MembershipRow::name).setHeader("Name").setKey("name");
+        grid.addColumn(MembershipRow::id).setHeader("ID").setKey("id");
+        grid.addColumn(row -> EveDates.format(row.startDate())).setHeader("Start").setKey("startDate");
+        grid.addColumn(row -> EveDates.format(row.endDate())).setHeader("End").setKey("endDate");
+        grid.setPartNameGenerator(row -> row.special() ? (row.alliance() != null ? "special-alliance" : "special") : null);
+        grid.setDataProvider(dataProvider);
 
         grid.addThemeVariants(GridVariant.LUMO_ROW_STRIPES);
     }
 
+    /**
+     * Shows the pending rows of a search that is still running, to be resolved one by one with
+     * {@link #updateCorporation}.
+     *
+     * @param corporations The pending rows, without names and alliances.
+     */
+    public void showPending(List<Corporation> corporations) {
+        rows = new ArrayList<>(corporations);
+        generation++;
+        dataProvider.refreshAll();
+    }
+
+    /**
+     * Replaces a pending row with its resolved corporation. Only that row, and its alliances if it is expanded, is
+     * sent again, and only if it is in the viewport; the rest of the grid is left alone.
+     *
+     * @param index       The position of the row.
+     * @param corporation The resolved corporation.
+     */
+    public void updateCorporation(int index, Corporation corporation) {
+        if (index < 0 || index >= rows.size()) {
+            return;
+        }
+        rows.set(index, corporation);
+        MembershipRow row = new MembershipRow(generation, index, -1, corporation, null);
+        dataProvider.refreshItem(row, true);
+        if (hasSpecialAlliance(corporation)) {
+            grid.expand(row);
+        }
+    }
+
     /**
      * Updates the grid items based on the provided character object. This is typically called
      * when there is new data to display or when an update to the existing data set is needed.
+     * If the displayed rows are the same tenures, e.g. the pending rows the search streamed in, only the rows that
+     * changed are sent again and the rows the user expanded stay expanded; any other list replaces the grid.
      *
      * @param character The character whose corporation and alliance data should be displayed in the grid.
      */
     public void updateList(Character character) {
         try {
-            grid.setItems(character.getCorporations());
-            grid.getColumns().forEach(col -> {
-                grid.getDataProvider().fetch(new Query<>()).forEach(item -> grid.setDetailsVisible(item, true));
-
-                if ("isSpecial".equals(col.getKey())) {
-                    col.setClassNameGenerator(corpo -> {
-
-                        if (corpo instanceof Corporation) {
-                            return corpo.isSpecial() ? "special" : "";
-                        }
-                        return "";
-                    });
+            List<Corporation> corporations = character.corporations();
+            if (sameTenures(corporations)) {
+                for (int index = 0; index < corporations.size(); index++) {
+                    if (!corporations.get(index).equals(rows.get(index))) {
+                        updateCorporation(index, corporations.get(index));
+                    }
                 }
-            });
+                return;
+            }
+            rows = new ArrayList<>(corporations);
+            generation++;
+            dataProvider.refreshAll();
+            expandSpecialAlliances();
         } catch (Exception e) {
             LOGGER.severe("Error updating the grid list: " + e.getMessage());
             Notification.show("Failed to update the grid data.", 5000, Notification.Position.BOTTOM_START);
         }
     }
+
+    /**
+     * Expands every corporation through which the character was in a snowflake alliance, so the highlighted
+     * alliances are visible without opening the rows one by one.
+     */
+    private void expandSpecialAlliances() {
+        List<MembershipRow> expanded = new ArrayList<>();
+        for (int index = 0; index < rows.size(); index++) {
+            if (hasSpecialAlliance(rows.get(index))) {
+                expanded.add(new MembershipRow(generation, index, -1, rows.get(index), null));
+            }
+        }
+        if (!expanded.isEmpty()) {
+            grid.expand(expanded);
+        }
+    }
+
+    private boolean sameTenures(List<Corporation> corporations) {
+        if (corporations.size() != rows.size()) {
+            return false;
+        }
+        for (int index = 0; index < corporations.size(); index++) {
+            Corporation displayed = rows.get(index);
+            if (displayed.id() != corporations.get(index).id()
+                    || displayed.playerStartDate() != corporations.get(index).playerStartDate()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasSpecialAlliance(Corporation corporation) {
+        return corporation.alliances().stream().anyMatch(Alliance::special);
+    }
+
+    /**
+     * A row of the tree grid: a corporation, or one of its alliances if {@code alliance} is set. Rows are identified
+     * by their position, so a pending corporation and its resolved replacement are the same row, and by the
+     * generation of the displayed list, so rows of a new list do not inherit the expansion state of the old one.
+     */
+    private record MembershipRow(int generation, int corporationIndex, int allianceIndex, Corporation corporation, Alliance alliance) {
+
+        String name() {
+            if (alliance != null) {
+                return alliance.name();
+            }
+            return corporation.name() != null ? corporation.name() : "Resolving…";
+        }
+
+        long id() {
+            return alliance != null ? alliance.id() : corporation.id();
+        }
+
+        long startDate() {
+            return alliance != null ? alliance.startDate() : corporation.playerStartDate();
+        }
+
+        long endDate() {
+            return alliance != null ? alliance.endDate() : corporation.playerEndDate();
+        }
+
+        boolean special() {
+            return alliance != null ? alliance.special() : corporation.special();
+        }
+
+        String key() {
+            return generation + ":" + corporationIndex + (alliance != null ? "/" + allianceIndex : "");
+        }
+    }
+
+    /**
+     * Serves the rows of the displayed character page by page, straight from its immutable lists.
+     */
+    private class MembershipDataProvider extends AbstractBackEndHierarchicalDataProvider<MembershipRow, Void> {
+
+        @Override
+        protected Stream<MembershipRow> fetchChildrenFromBackEnd(HierarchicalQuery<MembershipRow, Void> query) {
+            List<Corporation> corporations = rows;
+            int currentGeneration = generation;
+            MembershipRow parent = query.getParent();
+            if (parent == null) {
+                return page(corporations.size(), query)
+                        .mapToObj(index -> new MembershipRow(currentGeneration, index, -1, corporations.get(index), null));
+            }
+            List<Alliance> alliances = parent.corporation().alliances();
+            return page(alliances.size(), query)
+                    .mapToObj(index -> new MembershipRow(parent.generation(), parent.corporationIndex(), index, parent.corporation(), alliances.get(index)));
+        }
+
+        private IntStream page(int size, HierarchicalQuery<MembershipRow, Void> query) {
+            int from = Math.min(query.getOffset(), size);
+            return IntStream.range(from, (int) Math.min((long) from + query.getLimit(), size));
+        }
+
+        @Override
+        public int getChildCount(HierarchicalQuery<MembershipRow, Void> query) {
+            MembershipRow parent = query.getParent();
+            return parent == null ? rows.size() : parent.corporation().alliances().size();
+        }
+
+        @Override
+        public boolean hasChildren(MembershipRow item) {
+            return item.alliance() == null && !item.corporation().alliances().isEmpty();
+        }
+
+        @Override
+        public Object getId(MembershipRow item) {
+            return item.key();
+        }
+    }
 }
@@ -1,6 +1,6 @@
 package com.smell.application.views;
 
-import com.smell.application.structure.EveService;
+import com.smell.application.structure.CharacterDataService;
 import com.smell.application.search.MembershipSearchComponent;
 import com.smell.application.search.OtherSearchComponent;
 import com.smell.application.structure.res.StaticData;
@@ -51,17 +51,19 @@ import com.vaadin.flow.router.Route;
 @CssImport("./styles/shared-styles.css")
 public class MainView extends VerticalLayout {
 
-    private EveService eveService;
+    private final CharacterDataService characterDataService;
 
     /**
-     * Constructs the main view, setting up the user interface components and integrating the EveService.
+     * Constructs the main view, setting up the user interface components and integrating the CharacterDataService.
      * This method initializes the layout, adds ASCII banners, and configures the tabs for navigation.
+     *
+     * @param characterDataService The application-wide CharacterDataService, injected by Spring.
      */
-    public MainView() {
+    public MainView(CharacterDataService characterDataService) {
         setSizeFull();
         setDefaultHorizontalComponentAlignment(Alignment.CENTER);
 
-        eveService = new EveService();
+        this.characterDataService = characterDataService;
 
         add(new AsciiBannerComponent(StaticData.getSpyWareBanner(), 6, AsciiBannerComponent.BannerAlignment.TOP_RIGHT));
         add(new AsciiBannerComponent(StaticData.getNameBanner(), 6, AsciiBannerComponent.BannerAlignment.TOP_LEFT));
@@ -125,7 +127,7 @@ public class MainView extends VerticalLayout {
         currentTab = selectedTab;
         tabs.setSelectedTab(selectedTab); // Update the tab selection visually
         if ("Membership Search".equals(selectedTab.getLabel())) {
-            contentArea.add(new MembershipSearchComponent(eveService));
+            contentArea.add(new MembershipSearchComponent(characterDataService));
         } else if ("CC Search".equals(selectedTab.getLabel())) {
             contentArea.add(new OtherSearchComponent());
         } else if ("ACS Search".equals(selectedTab.getLabel())) {